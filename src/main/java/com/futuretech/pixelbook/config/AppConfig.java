@@ -1,10 +1,18 @@
 package com.futuretech.pixelbook.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableAsync
+@EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties({JwtProperties.class, RateLimitProperties.class})
 public class AppConfig {
 
     @Bean
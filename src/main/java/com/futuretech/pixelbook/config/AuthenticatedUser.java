@@ -0,0 +1,38 @@
+package com.futuretech.pixelbook.config;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * Utilisateur authentifié, reconstruit par {@link JwtAuthFilter} à partir des claims du token
+ * (aucune requête en base). L'id est null pour les anciens tokens émis sans claim "uid".
+ */
+public final class AuthenticatedUser implements Principal, Serializable {
+    private final Long id;
+    private final String email;
+
+    public AuthenticatedUser(Long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+
+    // Nom exposé par Authentication.getName() : l'email, comme avant
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
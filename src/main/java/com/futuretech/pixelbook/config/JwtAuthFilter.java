@@ -2,6 +2,7 @@ package com.futuretech.pixelbook.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.futuretech.pixelbook.util.JwtUtil;
+import com.futuretech.pixelbook.util.RevokedTokenException;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -34,21 +35,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
 
-        String email = null;
         String jwt = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
             try {
-                email = jwtUtil.getEmailFromToken(jwt);
+                // Principal typé construit à partir des claims (id, email) : aucune requête en base
+                AuthenticatedUser principal = jwtUtil.getAuthenticatedUser(jwt);
                 
-                if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (principal.getEmail() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        email, null, new ArrayList<>());
+                        principal, null, new ArrayList<>());
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
                 
                 chain.doFilter(request, response);
+            } catch (RevokedTokenException e) {
+                // Token révoqué (déconnexion, changement de mot de passe)
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Token révoqué");
+                error.put("message", "Cette session a été fermée, veuillez vous reconnecter");
+                
+                objectMapper.writeValue(response.getWriter(), error);
             } catch (ExpiredJwtException e) {
                 // Token expiré
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -79,6 +90,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
         return path.equals("/api/users/login") || 
+               path.equals("/api/users/token/refresh") || 
                path.startsWith("/swagger-ui/") || 
                path.startsWith("/v3/api-docs");
     }
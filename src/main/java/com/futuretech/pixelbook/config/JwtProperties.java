@@ -0,0 +1,45 @@
+package com.futuretech.pixelbook.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration des clés de signature JWT ({@code pixelbook.jwt.*}).
+ * Toutes les instances de l'API doivent partager la même liste de clés.
+ */
+@Data
+@ConfigurationProperties(prefix = "pixelbook.jwt")
+public class JwtProperties {
+
+    // Durée de validité des tokens d'accès (courte : la session se prolonge par refresh token)
+    private Duration validity = Duration.ofMinutes(15);
+
+    private List<SigningKey> keys = new ArrayList<>();
+
+    private Keystore keystore = new Keystore();
+
+    @Data
+    public static class SigningKey {
+        // Identifiant publié dans l'en-tête "kid" des tokens
+        private String id;
+        // Secret HMAC encodé en Base64 (au moins 256 bits) ; si absent, lu dans le keystore sous l'alias "id"
+        private String secret;
+        // Début de la signature avec cette clé ; la clé valide les tokens dès son chargement
+        private Instant notBefore;
+        // Fin de validité : plus aucune signature ni validation après cette date
+        private Instant notAfter;
+    }
+
+    @Data
+    public static class Keystore {
+        // Ressource Spring, ex. file:/etc/pixelbook/jwt-keys.p12
+        private String location;
+        private String password;
+        private String type = "PKCS12";
+    }
+}
@@ -0,0 +1,129 @@
+package com.futuretech.pixelbook.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.util.TokenBucketStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitation de débit par compartiments à jetons, placée après {@link JwtAuthFilter} dans la chaîne de sécurité :
+ * pour chaque route configurée, un compartiment par utilisateur authentifié et un par adresse IP, avec des limites
+ * distinctes. Les routes de même clé ({@link RateLimitProperties.Route#getKey()}) partagent leurs compartiments.
+ * Au-delà : 429 avec Retry-After. Les réponses des routes limitées portent X-RateLimit-Limit/Remaining/Reset.
+ * Derrière un répartiteur de charge, activer server.forward-headers-strategy pour obtenir l'IP du client.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TokenBucketStore buckets = new TokenBucketStore();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitProperties.Route route = matchRoute(request.getRequestURI().substring(request.getContextPath().length()));
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String bucketKey = route.getBucketKey();
+        RateLimitProperties.Limit ipLimit = route.getIp();
+        TokenBucketStore.Decision decision = buckets.tryConsume(bucketKey + "|ip|" + request.getRemoteAddr(),
+                ipLimit.getCapacity(), ipLimit.getRefillPeriod().toNanos(), now);
+
+        Long userId = currentUserId();
+        if (decision.allowed() && userId != null) {
+            RateLimitProperties.Limit userLimit = route.getUser();
+            TokenBucketStore.Decision userDecision = buckets.tryConsume(bucketKey + "|user|" + userId,
+                    userLimit.getCapacity(), userLimit.getRefillPeriod().toNanos(), now);
+            // En-têtes calculés sur le compartiment le plus contraignant
+            if (!userDecision.allowed() || userDecision.remaining() < decision.remaining()) {
+                decision = userDecision;
+            }
+        }
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(toSeconds(decision.resetNanos())));
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, toSeconds(decision.retryAfterNanos()))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Trop de requêtes");
+            error.put("message", "Limite de requêtes atteinte, veuillez réessayer plus tard");
+
+            objectMapper.writeValue(response.getWriter(), error);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRoutes().isEmpty();
+    }
+
+    /** Supprime les compartiments inactifs (ils seraient de toute façon pleins). */
+    @Scheduled(cron = "${pixelbook.rate-limit.eviction-cron:0 * * * * *}")
+    public void evictIdleBuckets() {
+        buckets.evictIdle(properties.getMaxIdle().toNanos(), System.nanoTime());
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private RateLimitProperties.Route matchRoute(String path) {
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (pathMatcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.futuretech.pixelbook.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limites de débit par route ({@code pixelbook.rate-limit.*}), appliquées par {@link RateLimitFilter}
+ * à la fois par utilisateur authentifié et par adresse IP, chacun avec sa propre limite.
+ * La première route dont le motif correspond s'applique.
+ */
+@Data
+@ConfigurationProperties(prefix = "pixelbook.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Compartiments inutilisés depuis plus longtemps que cette durée supprimés (ils seraient de nouveau pleins)
+    private Duration maxIdle = Duration.ofMinutes(10);
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        // Motif Ant sur le chemin de la requête, ex. /api/jikan/**
+        private String pattern;
+        // Nom des compartiments ; des routes équivalentes déclarent la même clé pour partager leurs compartiments.
+        // Par défaut le motif (compartiments propres à la route).
+        private String key;
+        // Limite par adresse IP : plusieurs clients peuvent partager une IP (NAT, proxy d'entreprise)
+        private Limit ip = new Limit();
+        // Limite par utilisateur authentifié, quelle que soit son IP
+        private Limit user = new Limit();
+
+        public String getBucketKey() {
+            return key != null && !key.isBlank() ? key : pattern;
+        }
+    }
+
+    @Data
+    public static class Limit {
+        // Nombre de requêtes admises en rafale
+        private int capacity;
+        // Durée de recharge complète du compartiment
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.futuretech.pixelbook.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Exécuteur dédié aux réponses asynchrones de Spring MVC (StreamingResponseBody des exports de bibliothèque).
+ * <p>
+ * Un export occupe un thread et une connexion à la base pendant tout le téléchargement : sur l'exécuteur
+ * {@code @Async} partagé, quelques clients lents suffiraient à bloquer les suppressions de compte.
+ * Pool borné ({@code threads}, {@code queue-capacity}) et délai maximal par réponse ({@code timeout}).
+ * L'exécuteur n'est pas déclaré comme bean, pour ne pas remplacer l'exécuteur {@code @Async} de Spring Boot.
+ * Métriques : executor.* (tag name=mvcAsync).
+ */
+@Configuration
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Duration timeout;
+
+    @Autowired
+    public WebMvcAsyncConfig(
+            MeterRegistry meterRegistry,
+            @Value("${pixelbook.mvc-async.threads:8}") int threads,
+            @Value("${pixelbook.mvc-async.queue-capacity:16}") int queueCapacity,
+            @Value("${pixelbook.mvc-async.timeout:10m}") Duration timeout) {
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pixelbook-mvc-async-");
+        executor.initialize();
+        this.timeout = timeout;
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "mvcAsync", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Appliqué après la configuration de Spring Boot, qui utiliserait l'exécuteur @Async
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(timeout.toMillis());
+    }
+
+    ThreadPoolTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,5 +1,8 @@
 package com.futuretech.pixelbook.controller;
 
+import com.futuretech.pixelbook.dto.BulkReadStatusRequestDTO;
+import com.futuretech.pixelbook.dto.BulkReadStatusResultDTO;
+import com.futuretech.pixelbook.event.ReadStatusChangedEvent;
 import com.futuretech.pixelbook.model.Bookshelf;
 import com.futuretech.pixelbook.model.Content;
 import com.futuretech.pixelbook.model.Volume;
@@ -7,6 +10,7 @@ import com.futuretech.pixelbook.model.ReadStatusResponse;
 import com.futuretech.pixelbook.repository.BookshelfRepository;
 import com.futuretech.pixelbook.repository.ContentRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
+import com.futuretech.pixelbook.service.ReadStatusService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,6 +20,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -49,6 +54,12 @@ public class ContentController {
     
     @Autowired
     private VolumeRepository volumeRepository;
+    
+    @Autowired
+    private ReadStatusService readStatusService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Operation(summary = "Obtenir tous les contenus", description = "Récupère la liste de tous les contenus")
     @ApiResponses(value = {
@@ -126,17 +137,12 @@ public class ContentController {
             return ResponseEntity.badRequest().build();
         }
         
-        // Vérifier si le volume est déjà dans la bibliothèque
-        if (contentRepository.existsByBookshelfIdAndVolumeId(bookshelfId, volumeId)) {
+        // Insertion idempotente : 0 ligne insérée = volume déjà dans la bibliothèque
+        if (contentRepository.addVolumeToBookshelf(bookshelfId, volumeId) == 0) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
         
-        Content content = new Content();
-        content.setBookshelf(bookshelfOpt.get());
-        content.setVolume(volumeOpt.get());
-        content.setAddedAt(new Date());
-        
-        Content savedContent = contentRepository.save(content);
+        Content savedContent = contentRepository.findByBookshelfIdAndVolumeId(bookshelfId, volumeId).orElseThrow();
         return ResponseEntity.status(HttpStatus.CREATED).body(savedContent);
     }
 
@@ -193,11 +199,44 @@ public class ContentController {
             return ResponseEntity.notFound().build();
         }
         
-        content.setRead(status);
-        content.setReadAt(status ? new Date() : null);
-        Content updatedContent = contentRepository.save(content);
+        // UPDATE conditionnel, comme la mise à jour en masse : aucune ligne modifiée si le volume est déjà
+        // dans l'état demandé, et dans ce cas pas d'événement
+        Date now = new Date();
+        int updated = contentRepository.bulkUpdateReadStatus(bookshelfId, List.of(volumeId), status, status ? now : null);
+        if (updated > 0) {
+            content.setRead(status);
+            content.setReadAt(status ? now : null);
+            eventPublisher.publishEvent(new ReadStatusChangedEvent(bookshelfId, List.of(volumeId), status, now));
+        }
         
-        return ResponseEntity.ok(updatedContent);
+        // On renvoie l'instance lue via le graphe "Content.listing" (volume et manga initialisés)
+        return ResponseEntity.ok(content);
+    }
+
+    @Operation(summary = "Marquer plusieurs volumes comme lus/non lus", 
+              description = "Met à jour en une seule requête le statut de lecture d'une liste de volumes, " +
+                            "ou de tous les volumes d'un manga (éventuellement d'une plage de numéros), et renvoie le résultat par volume")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statuts de lecture mis à jour"),
+        @ApiResponse(responseCode = "400", description = "Requête invalide"),
+        @ApiResponse(responseCode = "404", description = "Bibliothèque non trouvée")
+    })
+    @PutMapping("/bookshelf/{bookshelfId}/read/{status}")
+    public ResponseEntity<?> updateReadStatusInBulk(
+            @Parameter(description = "ID de la bibliothèque") @PathVariable Long bookshelfId,
+            @Parameter(description = "Statut de lecture (true/false)") @PathVariable boolean status,
+            @Parameter(description = "Volumes concernés : volumeIds, ou mangaId avec fromNumber/toNumber optionnels")
+            @RequestBody BulkReadStatusRequestDTO request) {
+        if (!bookshelfRepository.existsById(bookshelfId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            BulkReadStatusResultDTO result = readStatusService.updateReadStatus(bookshelfId, request, status);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @Operation(summary = "Obtenir le statut de lecture pour un utilisateur", 
@@ -1,7 +1,13 @@
 package com.futuretech.pixelbook.controller;
 
 
+import com.futuretech.pixelbook.dto.MusicJobDTO;
+import com.futuretech.pixelbook.service.MusicJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,12 +19,20 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
-import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,185 +61,159 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class MusicController {
     private static final Logger logger = LoggerFactory.getLogger(MusicController.class);
 
-    @PostMapping(value = "/download", produces = "audio/mpeg")
-    public ResponseEntity<Resource> downloadMusic(@RequestBody Map<String, String> body) throws IOException, InterruptedException {
-        logger.info("Requête reçue pour télécharger: {}", body);
-        
+    @Autowired
+    private MusicJobService musicJobService;
+
+    // Au-delà, /download rend la main avec un 202 pointant vers le job, qui continue en arrière-plan
+    @Value("${pixelbook.music.download-timeout:10m}")
+    private Duration downloadTimeout;
+
+    /**
+     * Soumet un téléchargement : renvoie 202 avec l'identifiant du job, à suivre via GET /jobs/{id}.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestBody Map<String, String> body) {
         String url = body.get("url");
         if (url == null || url.isEmpty()) {
             logger.error("URL manquante ou vide");
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.badRequest().body("URL manquante");
         }
-        
-        logger.info("URL valide: {}", url);
 
-        // Générer un nom de fichier unique basé sur l'URL et le timestamp
-        String uniqueId = String.valueOf(System.currentTimeMillis());
-        String videoId = extractVideoId(url);
-        if (videoId != null) {
-            uniqueId = videoId + "_" + uniqueId;
+        try {
+            MusicJobService.Job job = musicJobService.submit(url);
+            return ResponseEntity.accepted()
+                    .location(URI.create(jobPath(job)))
+                    .body(toDTO(job));
+        } catch (MusicJobService.SaturatedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(MusicJobService.RETRY_AFTER_SECONDS))
+                    .body(e.getMessage());
         }
-        
-        String filename = "track_" + uniqueId + ".mp3";
-        String webmFilename = "track_" + uniqueId + ".webm";
-        
-        logger.info("Nom de fichier unique généré: {}", filename);
+    }
 
-        // Créer un dossier avec un chemin absolu
-        String workingDir = System.getProperty("user.dir");
-        File output = new File(workingDir + "/downloads/" + filename);
-        File webmFile = new File(workingDir + "/downloads/" + webmFilename);
-        output.getParentFile().mkdirs();
-        
-        logger.info("Dossier de sortie créé: {}", output.getParentFile().getAbsolutePath());
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<MusicJobDTO> getJob(@PathVariable String id) {
+        return musicJobService.find(id)
+                .map(job -> ResponseEntity.ok(toDTO(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        // Chemin vers yt-dlp selon l'OS
-        String os = System.getProperty("os.name").toLowerCase();
-        String ytDlpPath;
-        String ffmpegPath;
-        
-        if (os.contains("win")) {
-            // Windows - utilise yt-dlp.exe
-            ytDlpPath = workingDir + "/yt-dlp.exe";
-            ffmpegPath = workingDir + "/ffmpeg/bin/ffmpeg.exe";
-        } else {
-            // Linux/Mac - utilise yt-dlp depuis /usr/local/bin
-            ytDlpPath = "/usr/local/bin/yt-dlp";
-            ffmpegPath = "/usr/local/bin/ffmpeg";
-        }
-        
-        logger.info("Chemin vers yt-dlp: {}", ytDlpPath);
-        
-        // Vérifier que yt-dlp existe
-        File ytDlpFile = new File(ytDlpPath);
-        if (!ytDlpFile.exists()) {
-            logger.error("yt-dlp n'existe pas à l'emplacement: {}", ytDlpPath);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ByteArrayResource("yt-dlp non trouvé".getBytes()));
-        }
-        
-        // Vérifier si FFmpeg existe
-        File ffmpegFile = new File(ffmpegPath);
-        if (!ffmpegFile.exists()) {
-            logger.error("FFmpeg non trouvé à : {}", ffmpegFile.getAbsolutePath());
-        } else {
-            logger.info("FFmpeg trouvé à : {}", ffmpegFile.getAbsolutePath());
-        }
-        
-        // Télécharger d'abord le fichier sans conversion
-        ProcessBuilder downloadProcessBuilder;
-        
-        if (os.contains("win")) {
-            // Windows - utilise cmd
-            String downloadCommand = String.format("\"%s\" -o \"%s\" %s", 
-                                          ytDlpPath, webmFile.getAbsolutePath(), url);
-            logger.info("Commande de téléchargement Windows : {}", downloadCommand);
-            downloadProcessBuilder = new ProcessBuilder("cmd", "/c", downloadCommand);
-        } else {
-            // Linux/Mac - utilise directement la commande
-            logger.info("Commande de téléchargement Linux : {} -o {} {}", ytDlpPath, webmFile.getAbsolutePath(), url);
-            downloadProcessBuilder = new ProcessBuilder(ytDlpPath, "-o", webmFile.getAbsolutePath(), url);
+    /**
+     * Fichier mp3 d'un job terminé ; 409 tant que le job n'est pas DONE.
+     */
+    @GetMapping(value = "/jobs/{id}/file", produces = "audio/mpeg")
+    public ResponseEntity<Resource> getJobFile(@PathVariable String id, @RequestHeader HttpHeaders requestHeaders) {
+        MusicJobService.Job job = musicJobService.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
         }
-        downloadProcessBuilder.redirectErrorStream(true);
-        Process downloadProcess = downloadProcessBuilder.start();
-        
-        // Capturer la sortie
-        StringBuilder downloadOutput = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(downloadProcess.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                downloadOutput.append(line).append("\n");
-                logger.info("yt-dlp download output: {}", line);
-            }
+        if (job.getPhase() != MusicJobService.Phase.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
+        return fileResponse(job.getFile(), requestHeaders);
+    }
+
+    /**
+     * Ancien point d'entrée synchrone, conservé pour les clients existants : le job passe par le même pool
+     * et le thread de requête est libéré pendant le traitement (requête asynchrone Servlet).
+     */
+    @PostMapping(value = "/download", produces = "audio/mpeg")
+    public DeferredResult<ResponseEntity<Resource>> downloadMusic(@RequestBody Map<String, String> body,
+                                                                  @RequestHeader HttpHeaders requestHeaders) {
+        logger.info("Requête reçue pour télécharger: {}", body);
+        DeferredResult<ResponseEntity<Resource>> result = new DeferredResult<>(downloadTimeout.toMillis());
         
-        int downloadExit = downloadProcess.waitFor();
-        logger.info("Processus de téléchargement terminé avec code: {}", downloadExit);
-        
-        if (downloadExit != 0) {
-            logger.error("Erreur lors du téléchargement: {}", downloadOutput.toString());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ByteArrayResource(("Erreur de téléchargement: " + downloadOutput.toString()).getBytes()));
+        String url = body.get("url");
+        if (url == null || url.isEmpty()) {
+            logger.error("URL manquante ou vide");
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
         }
-        
-        // Vérifier si le fichier webm a été téléchargé
-        if (!webmFile.exists()) {
-            logger.error("Le fichier webm n'a pas été téléchargé");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ByteArrayResource("Fichier webm non téléchargé".getBytes()));
+
+        MusicJobService.Job job;
+        try {
+            job = musicJobService.submit(url);
+        } catch (MusicJobService.SaturatedException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(MusicJobService.RETRY_AFTER_SECONDS))
+                    .build());
+            return result;
         }
-        
-        logger.info("Fichier webm téléchargé avec succès: {}", webmFile.getAbsolutePath());
-        
-        // Convertir le fichier webm en mp3 avec FFmpeg
-        ProcessBuilder convertProcessBuilder = new ProcessBuilder(
-            ffmpegPath,
-            "-i", webmFile.getAbsolutePath(),
-            "-vn", "-ab", "128k", "-ar", "44100", "-y", output.getAbsolutePath()
-        );
-        convertProcessBuilder.redirectErrorStream(true);
-        logger.info("Commande de conversion: {}", String.join(" ", convertProcessBuilder.command()));
 
-        Process convertProcess = convertProcessBuilder.start();
-        
-        // Capturer la sortie de FFmpeg
-        StringBuilder convertOutput = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(convertProcess.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                convertOutput.append(line).append("\n");
-                logger.info("FFmpeg output: {}", line);
+        result.onTimeout(() -> result.setResult(ResponseEntity.accepted()
+                .location(URI.create(jobPath(job)))
+                .build()));
+        job.getCompletion().whenComplete((file, error) -> {
+            if (error != null) {
+                result.setResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new ByteArrayResource(job.getError().getBytes())));
+            } else {
+                logger.info("Envoi du fichier au client");
+                result.setResult(fileResponse(file, requestHeaders));
             }
-        }
-        
-        int convertExit = convertProcess.waitFor();
-        logger.info("Processus de conversion terminé avec code: {}", convertExit);
-        
-        if (convertExit != 0 || !output.exists()) {
-            logger.error("Échec de la conversion: {}", convertOutput.toString());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ByteArrayResource(("Échec de la conversion: " + convertOutput.toString()).getBytes()));
-        }
-        
-        logger.info("Fichier mp3 créé avec succès: {} (taille: {} bytes)", output.getAbsolutePath(), output.length());
-        
-        // Créer une ressource à partir du fichier
-        byte[] fileContent = Files.readAllBytes(output.toPath());
-        ByteArrayResource resource = new ByteArrayResource(fileContent);
-        
-        logger.info("Ressource créée avec succès, taille: {} bytes", fileContent.length);
-        
-        // Configurer les en-têtes de la réponse
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
-        
-        logger.info("Envoi du fichier au client");
-        return ResponseEntity.ok()
-                .headers(headers)
-                .contentLength(fileContent.length)
-                .contentType(MediaType.parseMediaType("audio/mpeg"))
-                .body(resource);
+        });
+        return result;
     }
 
     /**
-     * Extrait l'ID de la vidéo YouTube à partir de l'URL
+     * Sert le mp3 depuis le disque, sans le charger en mémoire. Les en-têtes ETag et Last-Modified
+     * permettent à Spring de répondre 304 (If-None-Match / If-Modified-Since) ; une requête Range est
+     * découpée par Spring en 206 (ou 416), sauf si If-Range ne correspond plus au fichier : le fichier
+     * entier est alors renvoyé, comme l'exige la RFC 9110.
      */
-    private String extractVideoId(String url) {
+    private ResponseEntity<Resource> fileResponse(File file, HttpHeaders requestHeaders) {
+        if (!file.exists()) {
+            logger.error("Fichier introuvable: {}", file.getAbsolutePath());
+            return ResponseEntity.notFound().build();
+        }
+        long lastModified = file.lastModified();
+        // ETag fort calculé sans lire le fichier : taille + date de modification (un mp3 terminé n'est jamais réécrit)
+        String etag = "\"" + Long.toHexString(file.length()) + "-" + Long.toHexString(lastModified) + "\"";
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.getName())
+                .contentType(MediaType.parseMediaType("audio/mpeg"));
+
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (requestHeaders.getFirst(HttpHeaders.RANGE) != null && ifRange != null
+                && !ifRangeMatches(ifRange, etag, lastModified)) {
+            // InputStreamResource n'est pas découpé par Spring : la plage demandée est ignorée
+            Path path = file.toPath();
+            return response
+                    .contentLength(file.length())
+                    .body(new InputStreamResource(() -> Files.newInputStream(path)));
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    // If-Range porte soit un ETag (comparaison forte), soit une date qui doit être exactement Last-Modified
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
         try {
-            if (url.contains("youtube.com") || url.contains("youtu.be")) {
-                // Format: https://www.youtube.com/watch?v=VIDEO_ID
-                if (url.contains("?v=")) {
-                    return url.split("\\?v=")[1].split("&")[0];
-                }
-                // Format: https://youtu.be/VIDEO_ID
-                else if (url.contains("youtu.be/")) {
-                    return url.split("youtu\\.be/")[1].split("\\?")[0];
-                }
-            }
-        } catch (Exception e) {
-            logger.warn("Impossible d'extraire l'ID de la vidéo de l'URL: {}", url);
+            long ifRangeDate = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return ifRangeDate == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
         }
-        return null;
+    }
+
+    private static String jobPath(MusicJobService.Job job) {
+        return "/api/music/jobs/" + job.getId();
+    }
+
+    private static MusicJobDTO toDTO(MusicJobService.Job job) {
+        MusicJobService.Phase phase = job.getPhase();
+        return new MusicJobDTO(
+                job.getId(),
+                phase.name(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getFinishedAt(),
+                phase == MusicJobService.Phase.DONE ? jobPath(job) + "/file" : null);
     }
 
     @GetMapping("/search")
@@ -1,9 +1,12 @@
 package com.futuretech.pixelbook.controller;
 
+import com.futuretech.pixelbook.dto.BulkAddResultDTO;
+import com.futuretech.pixelbook.dto.VolumeIdsRequestDTO;
 import com.futuretech.pixelbook.model.ShopCart;
 import com.futuretech.pixelbook.model.Volume;
 import com.futuretech.pixelbook.repository.ShopCartRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
+import com.futuretech.pixelbook.service.BulkAddService;
 import com.futuretech.pixelbook.service.JikanService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +53,14 @@ public class ShopCartController {
     @Autowired
     private JikanService jikanService;
     
+    @Autowired
+    private BulkAddService bulkAddService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private static final int MAX_QUANTITY = 99;
+    
     @Operation(summary = "Obtenir tous les paniers", description = "Récupère la liste de tous les paniers d'achat")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des paniers récupérée avec succès",
@@ -111,25 +124,37 @@ public class ShopCartController {
     public ResponseEntity<ShopCart> addVolumeToCart(
             @Parameter(description = "ID du panier") @PathVariable Long shopCartId, 
             @Parameter(description = "ID du volume") @PathVariable Long volumeId) {
-        Optional<ShopCart> shopCartOpt = shopCartRepository.findById(shopCartId);
-        Optional<Volume> volumeOpt = volumeRepository.findById(volumeId);
-        
-        if (shopCartOpt.isEmpty() || volumeOpt.isEmpty()) {
+        if (!shopCartRepository.existsById(shopCartId) || !volumeRepository.existsById(volumeId)) {
             return ResponseEntity.badRequest().build();
         }
         
-        ShopCart shopCart = shopCartOpt.get();
-        Volume volume = volumeOpt.get();
-        
-        // Vérifier si le volume est déjà dans le panier
-        if (shopCart.getVolumes().stream().anyMatch(v -> v.getId().equals(volume.getId()))) {
+        // Insertion idempotente : 0 ligne insérée = volume déjà dans le panier
+        if (shopCartRepository.addVolumeToCart(shopCartId, volumeId) == 0) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
         
-        shopCart.getVolumes().add(volume);
-        ShopCart updatedShopCart = shopCartRepository.save(shopCart);
+        return ResponseEntity.ok(reloadShopCart(shopCartId));
+    }
+    
+    @Operation(summary = "Ajouter plusieurs volumes au panier", description = "Ajoute une liste de volumes au panier et renvoie le résultat par volume")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Volumes traités (voir le résultat par volume)",
+                    content = @Content(schema = @Schema(implementation = BulkAddResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Panier inexistant ou liste de volumes invalide")
+    })
+    @PostMapping("/{shopCartId}/volumes")
+    public ResponseEntity<?> addVolumesToCart(
+            @Parameter(description = "ID du panier") @PathVariable Long shopCartId,
+            @Parameter(description = "Ids des volumes à ajouter") @RequestBody VolumeIdsRequestDTO request) {
+        if (!shopCartRepository.existsById(shopCartId)) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        return ResponseEntity.ok(updatedShopCart);
+        try {
+            return ResponseEntity.ok(bulkAddService.addToCart(shopCartId, request.getVolumeIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @Operation(summary = "Retirer un volume du panier", description = "Retire un volume spécifique du panier")
@@ -143,22 +168,40 @@ public class ShopCartController {
     public ResponseEntity<ShopCart> removeVolumeFromCart(
             @Parameter(description = "ID du panier") @PathVariable Long shopCartId, 
             @Parameter(description = "ID du volume") @PathVariable Long volumeId) {
-        Optional<ShopCart> shopCartOpt = shopCartRepository.findById(shopCartId);
-        Optional<Volume> volumeOpt = volumeRepository.findById(volumeId);
-        
-        if (shopCartOpt.isEmpty() || volumeOpt.isEmpty()) {
+        if (!shopCartRepository.existsById(shopCartId) || !volumeRepository.existsById(volumeId)) {
             return ResponseEntity.badRequest().build();
         }
         
-        ShopCart shopCart = shopCartOpt.get();
-        Volume volume = volumeOpt.get();
+        // Suppression ciblée : 0 ligne supprimée = volume absent du panier
+        if (shopCartRepository.removeVolumeFromCart(shopCartId, volumeId) == 0) {
+            return ResponseEntity.notFound().build();
+        }
         
-        if (!shopCart.getVolumes().removeIf(v -> v.getId().equals(volume.getId()))) {
+        return ResponseEntity.ok(reloadShopCart(shopCartId));
+    }
+    
+    @Operation(summary = "Modifier la quantité d'un volume du panier", description = "Met à jour la quantité d'une ligne du panier")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Quantité mise à jour avec succès",
+                    content = @Content(schema = @Schema(implementation = ShopCart.class))),
+        @ApiResponse(responseCode = "400", description = "Quantité invalide"),
+        @ApiResponse(responseCode = "404", description = "Volume non trouvé dans le panier")
+    })
+    @PutMapping("/{shopCartId}/volume/{volumeId}/quantity/{quantity}")
+    public ResponseEntity<ShopCart> updateVolumeQuantity(
+            @Parameter(description = "ID du panier") @PathVariable Long shopCartId, 
+            @Parameter(description = "ID du volume") @PathVariable Long volumeId,
+            @Parameter(description = "Nouvelle quantité (au moins 1)") @PathVariable int quantity) {
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Une seule requête UPDATE sur la ligne : 0 ligne modifiée = volume absent du panier
+        if (shopCartRepository.updateQuantity(shopCartId, volumeId, quantity) == 0) {
             return ResponseEntity.notFound().build();
         }
         
-        ShopCart updatedShopCart = shopCartRepository.save(shopCart);
-        return ResponseEntity.ok(updatedShopCart);
+        return ResponseEntity.ok(reloadShopCart(shopCartId));
     }
     
     @Operation(summary = "Ajouter un volume au panier par ID MAL", 
@@ -167,16 +210,15 @@ public class ShopCartController {
         @ApiResponse(responseCode = "200", description = "Volume ajouté au panier avec succès",
                     content = @Content(schema = @Schema(implementation = ShopCart.class))),
         @ApiResponse(responseCode = "400", description = "Requête invalide"),
-        @ApiResponse(responseCode = "404", description = "Volume ou manga non trouvé")
+        @ApiResponse(responseCode = "404", description = "Volume ou manga non trouvé"),
+        @ApiResponse(responseCode = "409", description = "Le volume est déjà dans le panier")
     })
     @PostMapping("/{shopCartId}/mal/volume/{malId}/{volumeNumber}")
     public ResponseEntity<ShopCart> addVolumeToCartByMalId(
             @Parameter(description = "ID du panier") @PathVariable Long shopCartId, 
             @Parameter(description = "ID MAL du manga") @PathVariable Long malId,
             @Parameter(description = "Numéro du volume") @PathVariable Integer volumeNumber) {
-        Optional<ShopCart> shopCartOpt = shopCartRepository.findById(shopCartId);
-        
-        if (shopCartOpt.isEmpty()) {
+        if (!shopCartRepository.existsById(shopCartId)) {
             return ResponseEntity.badRequest().build();
         }
         
@@ -205,18 +247,24 @@ public class ShopCartController {
             volumeToAdd = existingVolumeOpt.get();
         }
         
-        ShopCart shopCart = shopCartOpt.get();
-        
-        // Vérifier si le volume est déjà dans le panier
-        final Volume finalVolumeToAdd = volumeToAdd;
-        if (shopCart.getVolumes().stream().anyMatch(v -> v.getId().equals(finalVolumeToAdd.getId()))) {
+        // Insertion idempotente : 0 ligne insérée = volume déjà dans le panier
+        if (shopCartRepository.addVolumeToCart(shopCartId, volumeToAdd.getId()) == 0) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
         
-        shopCart.getVolumes().add(volumeToAdd);
-        ShopCart updatedShopCart = shopCartRepository.save(shopCart);
-        
-        return ResponseEntity.ok(updatedShopCart);
+        return ResponseEntity.ok(reloadShopCart(shopCartId));
+    }
+    
+    // On relit le panier via le graphe "ShopCart.listing" : ses lignes ont pu être modifiées par une requête ciblée,
+    // et une copie fusionnée par save() ne porterait que des proxys. Si une transaction englobante
+    // gère déjà le panier, on le resynchronise avec la base.
+    private ShopCart reloadShopCart(Long shopCartId) {
+        ShopCart shopCart = shopCartRepository.findById(shopCartId).orElseThrow();
+        if (entityManager.contains(shopCart)) {
+            entityManager.flush();
+            entityManager.refresh(shopCart);
+        }
+        return shopCart;
     }
     
     // Si vous aviez précédemment des méthodes qui manipulaient des mangas, 
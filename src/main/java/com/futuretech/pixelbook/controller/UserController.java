@@ -12,9 +12,24 @@ import com.futuretech.pixelbook.repository.ShopCartRepository;
 import com.futuretech.pixelbook.repository.UserRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
 import com.futuretech.pixelbook.repository.MangaRepository;
+import com.futuretech.pixelbook.service.AuthTokenService;
+import com.futuretech.pixelbook.service.BookshelfExportService;
+import com.futuretech.pixelbook.service.BookshelfImportService;
+import com.futuretech.pixelbook.service.BulkAddService;
 import com.futuretech.pixelbook.service.JikanService;
+import com.futuretech.pixelbook.service.PasswordHashingService;
+import com.futuretech.pixelbook.service.UserAccountService;
+import com.futuretech.pixelbook.service.UserProfileService;
+import com.futuretech.pixelbook.dto.BookshelfImportReportDTO;
+import com.futuretech.pixelbook.dto.BookshelfItemDTO;
+import com.futuretech.pixelbook.dto.BulkAddResultDTO;
+import com.futuretech.pixelbook.dto.CartSummaryDTO;
 import com.futuretech.pixelbook.dto.LoginDTO;
-import com.futuretech.pixelbook.util.PasswordEncoder;
+import com.futuretech.pixelbook.dto.RefreshTokenRequestDTO;
+import com.futuretech.pixelbook.dto.TokenPairDTO;
+import com.futuretech.pixelbook.dto.UserSummaryDTO;
+import com.futuretech.pixelbook.dto.VolumeIdsRequestDTO;
+import com.futuretech.pixelbook.config.AuthenticatedUser;
 import com.futuretech.pixelbook.util.JwtUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,18 +39,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.transaction.annotation.Transactional;
 import org.hibernate.Hibernate;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -79,14 +104,41 @@ public class UserController {
     private JikanService jikanService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private BookshelfExportService bookshelfExportService;
+
+    @Autowired
+    private BookshelfImportService bookshelfImportService;
+
+    @Autowired
+    private BulkAddService bulkAddService;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Tris autorisés pour la bibliothèque, associés aux chemins de la projection
+    private static final Map<String, String> BOOKSHELF_SORTS = Map.of(
+        "addedAt", "addedAt",
+        "title", "v.title",
+        "read", "read"
+    );
+    private static final int DEFAULT_BOOKSHELF_PAGE_SIZE = 50;
+    private static final int MAX_BOOKSHELF_PAGE_SIZE = 500;
+
     @Operation(summary = "Obtenir tous les utilisateurs", description = "Récupère la liste de tous les utilisateurs")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des utilisateurs récupérée avec succès")
@@ -94,23 +146,13 @@ public class UserController {
 
     @GetMapping
     public ResponseEntity<List<?>> getAllUsers(@RequestParam(required = false) String fetchMode) {
-        List<User> users = userRepository.findAll();
-        
         if ("basic".equals(fetchMode)) {
-            // Créer une liste de DTOs simplifiés
-            List<Map<String, Object>> basicUsers = users.stream().map(user -> {
-                Map<String, Object> userDto = new HashMap<>();
-                userDto.put("id", user.getId());
-                userDto.put("email", user.getEmail());
-                userDto.put("password", user.getPassword());
-                userDto.put("createdAt", user.getCreatedAt());
-                userDto.put("skinId", user.getSkinId());
-                // Ne pas inclure bookshelf et shopCart
-                return userDto;
-            }).collect(Collectors.toList());
-            return ResponseEntity.ok(basicUsers);
+            // Projection des seules colonnes utiles : ni entité User, ni bookshelf, ni shopCart
+            return ResponseEntity.ok(userRepository.findAllSummaries());
         }
         
+        List<User> users = userRepository.findAll();
+        
         // Initialiser les collections
         users.forEach(user -> {
             if (user.getBookshelf() != null) {
@@ -130,6 +172,15 @@ public class UserController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable Long id, @RequestParam(required = false) String fetchMode) {
+        if ("basic".equals(fetchMode)) {
+            // Projection des seules colonnes utiles : ni entité User, ni bookshelf, ni shopCart
+            Optional<UserSummaryDTO> summaryOpt = userProfileService.findProfile(id);
+            if (summaryOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(summaryOpt.get());
+        }
+        
         Optional<User> userOpt = userRepository.findById(id);
         
         if (userOpt.isEmpty()) {
@@ -138,18 +189,6 @@ public class UserController {
         
         User user = userOpt.get();
         
-        if ("basic".equals(fetchMode)) {
-            // Créer un DTO simplifié sans les collections
-            Map<String, Object> userDto = new HashMap<>();
-            userDto.put("id", user.getId());
-            userDto.put("email", user.getEmail());
-            userDto.put("password", user.getPassword());
-            userDto.put("createdAt", user.getCreatedAt());
-            userDto.put("skinId", user.getSkinId());
-            // Ne pas inclure bookshelf et shopCart
-            return ResponseEntity.ok(userDto);
-        }
-        
         // Initialiser les collections si nécessaire
         if (user.getBookshelf() != null) {
             Hibernate.initialize(user.getBookshelf());
@@ -163,7 +202,8 @@ public class UserController {
 
     @Operation(summary = "Créer un nouvel utilisateur", description = "Crée un nouvel utilisateur avec une bibliothèque et un panier")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "201", description = "Utilisateur créé avec succès")
+        @ApiResponse(responseCode = "201", description = "Utilisateur créé avec succès"),
+        @ApiResponse(responseCode = "503", description = "Pool de hachage saturé, réessayer après Retry-After")
     })
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody User user) {
@@ -174,39 +214,40 @@ public class UserController {
         // Définir la date de création
         user.setCreatedAt(new Date());
         
-        // Hacher le mot de passe
-        String hashedPassword = passwordEncoder.encode(user.getPassword());
-        user.setPassword(hashedPassword);
-        
-        // Sauvegarder l'utilisateur
-        User savedUser = userRepository.save(user);
-        
-        // Créer et sauvegarder automatiquement une bibliothèque pour cet utilisateur
-        Bookshelf bookshelf = new Bookshelf();
-        bookshelf.setUser(savedUser);
-        bookshelfRepository.save(bookshelf);
-        
-        // Créer et sauvegarder automatiquement un panier pour cet utilisateur
-        ShopCart shopCart = new ShopCart();
-        shopCart.setUser(savedUser);
-        shopCartRepository.save(shopCart);
+        // Utilisateur, bibliothèque et panier créés dans une seule transaction
+        User savedUser;
+        try {
+            savedUser = userAccountService.register(user);
+        } catch (PasswordHashingService.SaturatedException e) {
+            return hashingSaturated().build();
+        }
         
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
     @Operation(summary = "Mettre à jour un utilisateur", description = "Met à jour les informations d'un utilisateur existant")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Utilisateur mis à jour avec succès")
+        @ApiResponse(responseCode = "200", description = "Utilisateur mis à jour avec succès"),
+        @ApiResponse(responseCode = "503", description = "Pool de hachage saturé, réessayer après Retry-After")
     })
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
         return userRepository.findById(id)
                 .map(existingUser -> {
                     user.setId(id);
-                    // Hacher le mot de passe
-                    String hashedPassword = passwordEncoder.encode(user.getPassword());
+                    // Hacher le mot de passe (pool BCrypt dédié)
+                    String hashedPassword;
+                    try {
+                        hashedPassword = passwordHashingService.encode(user.getPassword());
+                    } catch (PasswordHashingService.SaturatedException e) {
+                        return hashingSaturated().<User>build();
+                    }
                     user.setPassword(hashedPassword);
-                    return ResponseEntity.ok(userRepository.save(user));
+                    User savedUser = userRepository.save(user);
+                    userProfileService.evict(id);
+                    // Mot de passe remplacé : toutes les sessions ouvertes sont fermées
+                    authTokenService.revokeAllForUser(id);
+                    return ResponseEntity.ok(savedUser);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -220,25 +261,37 @@ public class UserController {
         return userRepository.findById(id)
                 .map(existingUser -> {
                     existingUser.setSkinId(skinId);
-                    return ResponseEntity.ok(userRepository.save(existingUser));
+                    User savedUser = userRepository.save(existingUser);
+                    userProfileService.evict(id);
+                    return ResponseEntity.ok(savedUser);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
-    @Operation(summary = "Supprimer un utilisateur", description = "Supprime un utilisateur par son ID")
+    @Operation(summary = "Supprimer un utilisateur", description = "Supprime un utilisateur par son ID, avec sa bibliothèque et son panier. " +
+              "Avec async=true, la suppression est lancée en arrière-plan")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Utilisateur supprimé avec succès"),
+        @ApiResponse(responseCode = "202", description = "Suppression lancée en arrière-plan"),
         @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        return userRepository.findById(id)
-                .map(user -> {
-                    userRepository.delete(user);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Void> deleteUser(
+            @PathVariable Long id,
+            @Parameter(description = "Supprimer en arrière-plan (gros comptes)") @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            if (!userRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            userAccountService.deleteAccountAsync(id);
+            return ResponseEntity.accepted().build();
+        }
+        
+        if (!userAccountService.deleteAccount(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
     }
 
     @Operation(summary = "Ajouter un volume à la bibliothèque", description = "Ajoute un volume à la bibliothèque d'un utilisateur")
@@ -270,26 +323,43 @@ public class UserController {
             bookshelfOpt = Optional.of(bookshelfRepository.save(newBookshelf));
         }
         
-        // Vérifier si le volume est déjà dans la bibliothèque
         Bookshelf bookshelf = bookshelfOpt.get();
-        if (contentRepository.existsByBookshelfIdAndVolumeId(bookshelf.getId(), volumeId)) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Ce volume est déjà dans votre bibliothèque");
-        }
         
         try {
-            // Créer le nouveau contenu
-            Content content = new Content();
-            content.setBookshelf(bookshelf);
-            content.setVolume(volumeOpt.get());
-            content.setAddedAt(new Date());
+            // Insertion idempotente : la contrainte unique (bookshelf_id, volume_id) arbitre les ajouts concurrents
+            if (contentRepository.addVolumeToBookshelf(bookshelf.getId(), volumeId) == 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Ce volume est déjà dans votre bibliothèque");
+            }
             
-            Content savedContent = contentRepository.save(content);
+            Content savedContent = contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumeId).orElseThrow();
             return ResponseEntity.status(HttpStatus.CREATED).body(savedContent);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erreur lors de l'ajout du volume: " + e.getMessage());
         }
     }
 
+    @Operation(summary = "Ajouter plusieurs volumes à la bibliothèque",
+              description = "Ajoute une liste de volumes à la bibliothèque d'un utilisateur et renvoie le résultat par volume")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Volumes traités (voir le résultat par volume)"),
+        @ApiResponse(responseCode = "400", description = "Liste de volumes invalide"),
+        @ApiResponse(responseCode = "404", description = "Utilisateur ou bibliothèque non trouvé")
+    })
+    @PostMapping("/{userId}/bookshelf/volumes")
+    public ResponseEntity<?> addVolumesToUserBookshelf(@PathVariable Long userId, @RequestBody VolumeIdsRequestDTO request) {
+        Optional<Long> bookshelfIdOpt = bookshelfRepository.findIdByUserId(userId);
+        if (bookshelfIdOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            BulkAddResultDTO result = bulkAddService.addToBookshelf(bookshelfIdOpt.get(), request.getVolumeIds());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @Operation(summary = "Ajouter un volume au panier", description = "Ajoute un volume au panier d'un utilisateur")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Volume ajouté au panier avec succès"),
@@ -298,51 +368,59 @@ public class UserController {
     })
     @PostMapping("/{userId}/shopcart/volume/{volumeId}")
     public ResponseEntity<?> addVolumeToUserCart(@PathVariable Long userId, @PathVariable Long volumeId, @RequestParam(required = false) String fetchMode) {
-        // Vérifier si l'utilisateur existe
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
+        // Récupérer uniquement l'id du panier (404 si l'utilisateur ou son panier n'existe pas)
+        Optional<Long> shopCartIdOpt = shopCartRepository.findIdByUserId(userId);
+        if (shopCartIdOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
         // Vérifier si le volume existe
-        Optional<Volume> volumeOpt = volumeRepository.findById(volumeId);
-        if (volumeOpt.isEmpty()) {
+        if (!volumeRepository.existsById(volumeId)) {
             return ResponseEntity.badRequest().build();
         }
         
-        User user = userOpt.get();
-        Volume volume = volumeOpt.get();
-        
-        // Récupérer le panier de l'utilisateur
-        Optional<ShopCart> shopCartOpt = shopCartRepository.findByUserId(userId);
-        if (shopCartOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        ShopCart shopCart = shopCartOpt.get();
+        Long shopCartId = shopCartIdOpt.get();
         
-        // Ajouter le volume au panier via une requête SQL directe
-        // au lieu d'utiliser la collection
-        try {
-            shopCartRepository.addVolumeToCart(shopCart.getId(), volume.getId());
-        } catch (Exception e) {
-            // En cas d'erreur (par exemple, le volume est déjà dans le panier)
+        // Insertion ciblée d'une ligne de panier ; 0 ligne insérée = volume déjà présent
+        if (shopCartRepository.addVolumeToCart(shopCartId, volumeId) == 0) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
         
         // Si fetchMode est "basic", renvoyer simplement l'ID du panier
         if ("basic".equals(fetchMode)) {
             Map<String, Object> response = new HashMap<>();
-            response.put("id", shopCart.getId());
+            response.put("id", shopCartId);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         }
         
         // Sinon, recharger le panier pour avoir les données à jour
-        shopCart = shopCartRepository.findById(shopCart.getId()).orElseThrow();
+        ShopCart shopCart = shopCartRepository.findById(shopCartId).orElseThrow();
         
         return ResponseEntity.status(HttpStatus.CREATED).body(shopCart);
     }
 
+    @Operation(summary = "Ajouter plusieurs volumes au panier",
+              description = "Ajoute une liste de volumes au panier d'un utilisateur et renvoie le résultat par volume")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Volumes traités (voir le résultat par volume)"),
+        @ApiResponse(responseCode = "400", description = "Liste de volumes invalide"),
+        @ApiResponse(responseCode = "404", description = "Utilisateur ou panier non trouvé")
+    })
+    @PostMapping("/{userId}/shopcart/volumes")
+    public ResponseEntity<?> addVolumesToUserCart(@PathVariable Long userId, @RequestBody VolumeIdsRequestDTO request) {
+        Optional<Long> shopCartIdOpt = shopCartRepository.findIdByUserId(userId);
+        if (shopCartIdOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            BulkAddResultDTO result = bulkAddService.addToCart(shopCartIdOpt.get(), request.getVolumeIds());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @Operation(summary = "Ajouter un volume au panier par ID MAL", 
               description = "Ajoute un volume spécifique d'un manga identifié par son ID MAL au panier d'un utilisateur")
     @ApiResponses(value = {
@@ -420,22 +498,9 @@ public class UserController {
             entityManager.flush();
             entityManager.clear();
             
-            // 6. Exécuter une requête JPQL pour vérifier si le volume est déjà dans le panier
-            Long count = (Long) entityManager.createQuery(
-                    "SELECT COUNT(v) FROM ShopCart sc JOIN sc.volumes v WHERE sc.id = :cartId AND v.id = :volumeId")
-                    .setParameter("cartId", shopCartId)
-                    .setParameter("volumeId", volume.getId())
-                    .getSingleResult();
-            
-            if (count == 0) {
-                // 7. Exécuter une requête JPQL pour ajouter le volume au panier
-                // Cette approche contourne complètement les problèmes de collection
-                entityManager.createNativeQuery(
-                        "INSERT INTO shop_cart_volume (shop_cart_id, volume_id) VALUES (:cartId, :volumeId)")
-                        .setParameter("cartId", shopCartId)
-                        .setParameter("volumeId", volume.getId())
-                        .executeUpdate();
-                
+            // 6. Ajouter le volume au panier en une seule requête idempotente
+            // Cette approche contourne complètement les problèmes de collection
+            if (shopCartRepository.addVolumeToCart(shopCartId, volume.getId()) == 1) {
                 return ResponseEntity.ok("Volume ajouté au panier");
             } else {
                 return ResponseEntity.status(HttpStatus.CONFLICT).body("Ce volume est déjà dans le panier");
@@ -457,69 +522,43 @@ public class UserController {
     public ResponseEntity<?> checkoutShopCart(@PathVariable Long userId) {
         try {
             // 1. Vérifier si l'utilisateur existe
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Utilisateur non trouvé");
             }
-            User user = userOpt.get();
             
-            // 2. Récupérer le panier de l'utilisateur
-            Optional<ShopCart> shopCartOpt = shopCartRepository.findByUserId(userId);
-            if (shopCartOpt.isEmpty()) {
+            // 2. Verrouiller le panier de l'utilisateur jusqu'à la fin de la transaction :
+            // deux checkouts simultanés du même panier s'exécutent l'un après l'autre
+            Optional<Long> shopCartIdOpt = shopCartRepository.lockIdByUserId(userId);
+            if (shopCartIdOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Panier non trouvé");
             }
-            ShopCart shopCart = shopCartOpt.get();
-            Long shopCartId = shopCart.getId();
-            
-            // 3. Récupérer directement les volumes du panier avec une requête JPQL
-            List<Volume> cartVolumes = entityManager.createQuery(
-                    "SELECT v FROM ShopCart sc JOIN sc.volumes v WHERE sc.id = :cartId", Volume.class)
-                    .setParameter("cartId", shopCartId)
-                    .getResultList();
-            
-            // Vérifier si le panier est vide
-            if (cartVolumes.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Le panier est vide");
-            }
+            Long shopCartId = shopCartIdOpt.get();
             
-            // 4. Récupérer la bibliothèque de l'utilisateur
-            Optional<Bookshelf> bookshelfOpt = bookshelfRepository.findByUserId(userId);
-            if (bookshelfOpt.isEmpty()) {
+            // 3. Récupérer la bibliothèque de l'utilisateur
+            Optional<Long> bookshelfIdOpt = bookshelfRepository.findIdByUserId(userId);
+            Long bookshelfId;
+            if (bookshelfIdOpt.isEmpty()) {
                 // Créer une bibliothèque si elle n'existe pas
                 Bookshelf newBookshelf = new Bookshelf();
-                newBookshelf.setUser(user);
-                bookshelfOpt = Optional.of(bookshelfRepository.save(newBookshelf));
-            }
-            Bookshelf bookshelf = bookshelfOpt.get();
-            
-            // 5. Ajouter chaque volume du panier à la bibliothèque
-            List<Content> addedContents = new ArrayList<>();
-            Date now = new Date();
-            
-            for (Volume volume : cartVolumes) {
-                // Vérifier si le volume est déjà dans la bibliothèque
-                if (!contentRepository.existsByBookshelfIdAndVolumeId(bookshelf.getId(), volume.getId())) {
-                    // Créer un nouveau contenu
-                    Content content = new Content();
-                    content.setBookshelf(bookshelf);
-                    content.setVolume(volume);
-                    content.setAddedAt(now);
-                    
-                    Content savedContent = contentRepository.save(content);
-                    addedContents.add(savedContent);
-                }
+                newBookshelf.setUser(userRepository.getReferenceById(userId));
+                bookshelfId = bookshelfRepository.saveAndFlush(newBookshelf).getId();
+            } else {
+                bookshelfId = bookshelfIdOpt.get();
             }
             
-            // 6. Vider le panier
-            // Utiliser une requête native pour éviter les problèmes de collection
-            entityManager.createNativeQuery("DELETE FROM shop_cart_volume WHERE shop_cart_id = :cartId")
-                    .setParameter("cartId", shopCartId)
-                    .executeUpdate();
+            // 4. Copier tout le panier dans la bibliothèque en une requête (doublons ignorés)
+            int addedVolumes = contentRepository.insertFromCart(bookshelfId, shopCartId);
+            
+            // 5. Vider le panier ; aucune ligne supprimée signifie que le panier était vide
+            int removedVolumes = shopCartRepository.detachVolumesFromCart(shopCartId);
+            if (removedVolumes == 0) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Le panier est vide");
+            }
             
-            // 7. Retourner le résultat
+            // 6. Retourner le résultat
             Map<String, Object> result = new HashMap<>();
             result.put("message", "Paiement validé avec succès");
-            result.put("addedVolumes", addedContents.size());
+            result.put("addedVolumes", addedVolumes);
             
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -529,46 +568,40 @@ public class UserController {
         }
     }
 
-    @Operation(summary = "Obtenir le panier d'un utilisateur", description = "Récupère le contenu du panier d'un utilisateur")
+    @Operation(summary = "Obtenir le panier d'un utilisateur", description = "Récupère le contenu du panier d'un utilisateur. " +
+              "Avec summary=true, seuls le nombre d'articles et le prix total sont renvoyés (badge d'en-tête)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Panier récupéré avec succès"),
         @ApiResponse(responseCode = "404", description = "Utilisateur ou panier non trouvé")
     })
     @GetMapping("/{userId}/shopcart")
-    public ResponseEntity<?> getUserShopCart(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserShopCart(
+            @PathVariable Long userId,
+            @Parameter(description = "Ne renvoyer que les totaux") @RequestParam(defaultValue = "false") boolean summary) {
         try {
-            // Vérifier si l'utilisateur existe
-            if (!userRepository.existsById(userId)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Utilisateur non trouvé");
-            }
-            
-            // Récupérer le panier de l'utilisateur
-            Optional<ShopCart> shopCartOpt = shopCartRepository.findByUserId(userId);
-            if (shopCartOpt.isEmpty()) {
+            // Récupérer l'id du panier ; l'existence de l'utilisateur n'est vérifiée qu'en cas d'absence
+            Optional<Long> shopCartIdOpt = shopCartRepository.findIdByUserId(userId);
+            if (shopCartIdOpt.isEmpty()) {
+                if (!userRepository.existsById(userId)) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Utilisateur non trouvé");
+                }
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Panier non trouvé");
             }
+            Long shopCartId = shopCartIdOpt.get();
             
-            ShopCart shopCart = shopCartOpt.get();
-            Long shopCartId = shopCart.getId();
-            
-            // Récupérer les volumes du panier avec une requête JPQL pour éviter les problèmes de collection
-            List<Volume> cartVolumes = entityManager.createQuery(
-                    "SELECT v FROM ShopCart sc JOIN sc.volumes v WHERE sc.id = :cartId", Volume.class)
-                    .setParameter("cartId", shopCartId)
-                    .getResultList();
+            // Totaux calculés en base (COUNT / SUM)
+            CartSummaryDTO cartSummary = shopCartRepository.summarizeCart(shopCartId);
             
-            // Créer un objet de réponse avec les informations du panier
             Map<String, Object> response = new HashMap<>();
-            response.put("id", shopCart.getId());
+            response.put("id", shopCartId);
             response.put("userId", userId);
-            response.put("volumes", cartVolumes);
-            response.put("totalItems", cartVolumes.size());
+            response.put("totalItems", cartSummary.getTotalItems());
+            response.put("totalPrice", cartSummary.getTotalPrice());
             
-            // Calculer le prix total
-            double totalPrice = cartVolumes.stream()
-                    .mapToDouble(Volume::getPrice)
-                    .sum();
-            response.put("totalPrice", totalPrice);
+            // Lignes du panier en projection, sauf en mode résumé
+            if (!summary) {
+                response.put("volumes", shopCartRepository.findItemsByCartId(shopCartId));
+            }
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -577,46 +610,66 @@ public class UserController {
         }
     }
 
-    @Operation(summary = "Obtenir la bibliothèque d'un utilisateur", description = "Récupère le contenu de la bibliothèque d'un utilisateur")
+    @Operation(summary = "Obtenir la bibliothèque d'un utilisateur",
+              description = "Récupère le contenu de la bibliothèque d'un utilisateur. "
+                      + "Sans paramètre de pagination, réponse historique complète et non paginée : "
+                      + "contents[] = {id, addedAt, volume} où volume est le volume complet avec son manga. "
+                      + "Avec page, size, sort ou direction, réponse paginée (page, size, totalPages en plus) : "
+                      + "contents[] = {id, addedAt, read, readAt, volume} où volume est un résumé à plat "
+                      + "{id, title, number, coverUrl, price, mangaId, mangaTitle}.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Bibliothèque récupérée avec succès"),
+        @ApiResponse(responseCode = "400", description = "Tri ou pagination invalide"),
         @ApiResponse(responseCode = "404", description = "Utilisateur ou bibliothèque non trouvé")
     })
     @GetMapping("/{userId}/bookshelf")
-    public ResponseEntity<?> getUserBookshelf(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserBookshelf(
+            @PathVariable Long userId,
+            @Parameter(description = "Numéro de page (à partir de 0, défaut 0)") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Nombre d'éléments par page (défaut 50)") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Tri : addedAt (défaut), title ou read") @RequestParam(required = false) String sort,
+            @Parameter(description = "Sens du tri : asc (défaut) ou desc") @RequestParam(required = false) String direction) {
         try {
             // Vérifier si l'utilisateur existe
             if (!userRepository.existsById(userId)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Utilisateur non trouvé");
             }
             
-            // Récupérer la bibliothèque de l'utilisateur
-            Optional<Bookshelf> bookshelfOpt = bookshelfRepository.findByUserId(userId);
-            if (bookshelfOpt.isEmpty()) {
+            // Récupérer uniquement l'id de la bibliothèque de l'utilisateur
+            Optional<Long> bookshelfIdOpt = bookshelfRepository.findIdByUserId(userId);
+            if (bookshelfIdOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bibliothèque non trouvée");
             }
             
-            Bookshelf bookshelf = bookshelfOpt.get();
+            Long bookshelfId = bookshelfIdOpt.get();
+            if (page == null && size == null && sort == null && direction == null) {
+                return ResponseEntity.ok(legacyBookshelfResponse(bookshelfId, userId));
+            }
+            
+            String sortProperty = BOOKSHELF_SORTS.get(sort != null ? sort : "addedAt");
+            if (sortProperty == null) {
+                return ResponseEntity.badRequest().body("Tri invalide: " + sort);
+            }
+            int pageNumber = page != null ? page : 0;
+            int pageSize = size != null ? size : DEFAULT_BOOKSHELF_PAGE_SIZE;
+            if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_BOOKSHELF_PAGE_SIZE) {
+                return ResponseEntity.badRequest().body("Pagination invalide");
+            }
+            Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortDirection, sortProperty).and(Sort.by("id")));
             
-            // Récupérer les contenus de la bibliothèque avec les volumes associés
-            List<Content> contents = contentRepository.findByBookshelfId(bookshelf.getId());
+            // Une seule requête de projection contents → volumes → mangas (plus le count)
+            Page<BookshelfItemDTO> items = contentRepository.findItemsByBookshelfId(bookshelfId, pageable);
             
             // Créer un objet de réponse avec les informations de la bibliothèque
             Map<String, Object> response = new HashMap<>();
-            response.put("id", bookshelf.getId());
+            response.put("id", bookshelfId);
             response.put("userId", userId);
-            response.put("totalItems", contents.size());
-            
-            // Transformer les contenus pour inclure les informations des volumes
-            List<Map<String, Object>> contentList = contents.stream().map(content -> {
-                Map<String, Object> contentMap = new HashMap<>();
-                contentMap.put("id", content.getId());
-                contentMap.put("addedAt", content.getAddedAt());
-                contentMap.put("volume", content.getVolume());
-                return contentMap;
-            }).collect(Collectors.toList());
-            
-            response.put("contents", contentList);
+            response.put("totalItems", items.getTotalElements());
+            response.put("page", items.getNumber());
+            response.put("size", items.getSize());
+            response.put("totalPages", items.getTotalPages());
+            response.put("contents", items.getContent());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -625,11 +678,110 @@ public class UserController {
         }
     }
 
+    // Réponse historique, conservée pour les clients qui n'envoient aucun paramètre de pagination :
+    // toute la bibliothèque, volumes complets avec leur manga (une seule requête grâce au graphe "Content.listing")
+    private Map<String, Object> legacyBookshelfResponse(Long bookshelfId, Long userId) {
+        List<Content> contents = contentRepository.findByBookshelfId(bookshelfId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", bookshelfId);
+        response.put("userId", userId);
+        response.put("totalItems", contents.size());
+        
+        List<Map<String, Object>> contentList = contents.stream().map(content -> {
+            Map<String, Object> contentMap = new HashMap<>();
+            contentMap.put("id", content.getId());
+            contentMap.put("addedAt", content.getAddedAt());
+            contentMap.put("volume", content.getVolume());
+            return contentMap;
+        }).collect(Collectors.toList());
+        
+        response.put("contents", contentList);
+        return response;
+    }
+
+    @Operation(summary = "Exporter la bibliothèque d'un utilisateur",
+              description = "Exporte toute la bibliothèque en NDJSON (une ligne JSON par volume) ou en CSV, en streaming")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export en cours de transmission"),
+        @ApiResponse(responseCode = "400", description = "Format invalide"),
+        @ApiResponse(responseCode = "404", description = "Utilisateur ou bibliothèque non trouvé")
+    })
+    @GetMapping("/{userId}/bookshelf/export")
+    public ResponseEntity<StreamingResponseBody> exportUserBookshelf(
+            @PathVariable Long userId,
+            @Parameter(description = "Format : ndjson ou csv") @RequestParam(defaultValue = "ndjson") String format) {
+        if (!BookshelfExportService.FORMATS.contains(format)) {
+            return exportError(HttpStatus.BAD_REQUEST, "Format invalide: " + format);
+        }
+        
+        Optional<Long> bookshelfIdOpt = bookshelfRepository.findIdByUserId(userId);
+        if (bookshelfIdOpt.isEmpty()) {
+            return exportError(HttpStatus.NOT_FOUND,
+                    userRepository.existsById(userId) ? "Bibliothèque non trouvée" : "Utilisateur non trouvé");
+        }
+        
+        // Le corps est écrit après le retour du contrôleur, directement depuis le curseur de la base
+        Long bookshelfId = bookshelfIdOpt.get();
+        StreamingResponseBody body = out -> bookshelfExportService.export(bookshelfId, format, out);
+        
+        boolean csv = BookshelfExportService.FORMAT_CSV.equals(format);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                                 : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookshelf-" + userId + "." + format + "\"")
+                .body(body);
+    }
+
+    // Le type de retour doit rester StreamingResponseBody pour que Spring diffuse le corps : les erreurs sont écrites en texte
+    private ResponseEntity<StreamingResponseBody> exportError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Operation(summary = "Importer des volumes dans la bibliothèque d'un utilisateur",
+              description = "Importe en masse un fichier CSV (colonnes volumeId, isbn ou malId + volumeNumber, read) " +
+                            "ou un export XML MyAnimeList, et renvoie le bilan avec les erreurs ligne par ligne")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import effectué (voir le bilan pour les lignes rejetées)"),
+        @ApiResponse(responseCode = "400", description = "Format ou fichier invalide"),
+        @ApiResponse(responseCode = "404", description = "Utilisateur ou bibliothèque non trouvé")
+    })
+    @PostMapping(value = "/{userId}/bookshelf/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importUserBookshelf(
+            @PathVariable Long userId,
+            @Parameter(description = "Fichier à importer") @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Format : csv ou mal") @RequestParam(defaultValue = "csv") String format) {
+        if (!BookshelfImportService.FORMATS.contains(format)) {
+            return ResponseEntity.badRequest().body("Format invalide: " + format);
+        }
+        
+        Optional<Long> bookshelfIdOpt = bookshelfRepository.findIdByUserId(userId);
+        if (bookshelfIdOpt.isEmpty()) {
+            return userRepository.existsById(userId)
+                    ? ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bibliothèque non trouvée")
+                    : ResponseEntity.status(HttpStatus.NOT_FOUND).body("Utilisateur non trouvé");
+        }
+        
+        try (InputStream in = file.getInputStream()) {
+            BookshelfImportReportDTO report = bookshelfImportService.importFile(bookshelfIdOpt.get(), format, in);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erreur lors de l'import de la bibliothèque: " + e.getMessage());
+        }
+    }
+
     @Operation(summary = "Connecter un utilisateur", description = "Authentifie un utilisateur avec son email et mot de passe")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Connexion réussie"),
         @ApiResponse(responseCode = "401", description = "Identifiants invalides"),
-        @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+        @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé"),
+        @ApiResponse(responseCode = "503", description = "Trop de connexions simultanées, réessayer après Retry-After")
     })
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginDTO loginDTO) {
@@ -643,53 +795,103 @@ public class UserController {
             
             User user = userOpt.get();
             
-            if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
+            // Vérification BCrypt sur le pool dédié : rejet immédiat (503) s'il est saturé
+            if (!passwordHashingService.matches(loginDTO.getPassword(), user.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("Mot de passe incorrect");
             }
             
-            String token = jwtUtil.generateToken(user.getEmail());
+            // Hachage à un coût BCrypt trop faible : refait en arrière-plan, sans retarder la réponse
+            userAccountService.upgradePasswordHash(user, loginDTO.getPassword());
+            
+            // Token d'accès court + refresh token stocké côté serveur
+            TokenPairDTO tokens = authTokenService.issueTokens(user);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
+            response.put("token", tokens.getToken());
+            response.put("refreshToken", tokens.getRefreshToken());
+            response.put("expiresIn", tokens.getExpiresIn());
             response.put("id", user.getId());
             response.put("email", user.getEmail());
             response.put("createdAt", user.getCreatedAt());
             response.put("skinId", user.getSkinId());
             
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingService.SaturatedException e) {
+            return hashingSaturated().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Erreur lors de la connexion: " + e.getMessage());
         }
     }
 
+    @Operation(summary = "Rafraîchir le token d'accès", description = "Échange un refresh token contre un nouveau token d'accès " +
+              "et un nouveau refresh token ; l'ancien refresh token est révoqué")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Nouvelle paire de tokens"),
+        @ApiResponse(responseCode = "401", description = "Refresh token inconnu, expiré ou révoqué")
+    })
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequestDTO request) {
+        return authTokenService.refresh(request.getRefreshToken())
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Refresh token invalide ou expiré"));
+    }
+
+    @Operation(summary = "Se déconnecter", description = "Révoque le token d'accès présenté et, s'il est fourni, le refresh token de la session")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Session fermée"),
+        @ApiResponse(responseCode = "401", description = "Erreur d'authentification")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestBody(required = false) RefreshTokenRequestDTO request) {
+        try {
+            String token = jwtUtil.extractTokenFromHeader(authHeader);
+            if (principal == null) {
+                principal = jwtUtil.getAuthenticatedUser(token);
+            }
+            Long userId = principal.getId() != null
+                ? principal.getId()
+                : userRepository.findSummaryByEmail(principal.getEmail())
+                    .map(UserSummaryDTO::getId)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé pour le token"));
+            
+            authTokenService.logout(userId, token, request != null ? request.getRefreshToken() : null);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Erreur d'authentification: " + e.getMessage());
+        }
+    }
+
     @Operation(summary = "Créer un nouvel utilisateur", description = "Crée un nouvel utilisateur avec une bibliothèque et un panier")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "201", description = "Utilisateur créé avec succès")
+        @ApiResponse(responseCode = "201", description = "Utilisateur créé avec succès"),
+        @ApiResponse(responseCode = "503", description = "Pool de hachage saturé, réessayer après Retry-After")
     })
     @PostMapping("/register")
     public ResponseEntity<User> registerUser(@RequestBody User user) {
-        // Hacher le mot de passe
-        String hashedPassword = passwordEncoder.encode(user.getPassword());
-        user.setPassword(hashedPassword);
-        
-        // Sauvegarder l'utilisateur
-        User savedUser = userRepository.save(user);
-        
-        // Créer et sauvegarder automatiquement une bibliothèque pour cet utilisateur
-        Bookshelf bookshelf = new Bookshelf();
-        bookshelf.setUser(savedUser);
-        bookshelfRepository.save(bookshelf);
-        
-        // Créer et sauvegarder automatiquement un panier pour cet utilisateur
-        ShopCart shopCart = new ShopCart();
-        shopCart.setUser(savedUser);
-        shopCartRepository.save(shopCart);
+        // Utilisateur, bibliothèque et panier créés dans une seule transaction
+        User savedUser;
+        try {
+            savedUser = userAccountService.register(user);
+        } catch (PasswordHashingService.SaturatedException e) {
+            return hashingSaturated().build();
+        }
         
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
+    // 503 avec délai de nouvelle tentative, quand le pool BCrypt refuse le calcul
+    private static ResponseEntity.BodyBuilder hashingSaturated() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingService.RETRY_AFTER_SECONDS));
+    }
+
 
     @Operation(summary = "Obtenir les informations de l'utilisateur connecté", description = "Récupère les informations de l'utilisateur connecté")
     @ApiResponses(value = {
@@ -697,18 +899,23 @@ public class UserController {
         @ApiResponse(responseCode = "401", description = "Erreur d'authentification")
     })
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCurrentUser(
+            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            String token = jwtUtil.extractTokenFromHeader(authHeader);
-            User user = jwtUtil.getUserFromToken(token, userRepository);
+            // Principal posé par JwtAuthFilter ; sinon (filtre non appliqué) lu directement dans le token
+            if (principal == null) {
+                principal = jwtUtil.getAuthenticatedUser(jwtUtil.extractTokenFromHeader(authHeader));
+            }
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("email", user.getEmail());
-            response.put("createdAt", user.getCreatedAt());
-            response.put("skinId", user.getSkinId());
+            // Profil en cache par id ; les anciens tokens sans claim "uid" passent par l'email
+            Optional<UserSummaryDTO> profile = principal.getId() != null
+                ? userProfileService.findProfile(principal.getId())
+                : userRepository.findSummaryByEmail(principal.getEmail());
+            UserSummaryDTO user = profile
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé pour le token"));
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Erreur d'authentification: " + e.getMessage());
@@ -2,6 +2,7 @@ package com.futuretech.pixelbook.controller;
 
 import com.futuretech.pixelbook.model.Volume;
 import com.futuretech.pixelbook.repository.MangaRepository;
+import com.futuretech.pixelbook.repository.ShopCartRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -42,6 +43,9 @@ public class VolumeController {
     @Autowired
     private MangaRepository mangaRepository;
     
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+    
     @Operation(summary = "Obtenir tous les volumes", description = "Récupère la liste de tous les volumes")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des volumes récupérée avec succès",
@@ -61,7 +65,7 @@ public class VolumeController {
     @GetMapping("/{id}")
     public ResponseEntity<Volume> getVolumeById(
             @Parameter(description = "ID du volume") @PathVariable Long id) {
-        return volumeRepository.findById(id)
+        return volumeRepository.findDetailById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -74,7 +78,7 @@ public class VolumeController {
     @GetMapping("/manga/{mangaId}")
     public ResponseEntity<List<Volume>> getVolumesByMangaId(
             @Parameter(description = "ID du manga") @PathVariable Long mangaId) {
-        return ResponseEntity.ok(volumeRepository.findByMangaId(mangaId));
+        return ResponseEntity.ok(volumeRepository.findDetailsByMangaId(mangaId));
     }
     
     @Operation(summary = "Créer un nouveau volume", description = "Crée un nouveau volume")
@@ -107,10 +111,13 @@ public class VolumeController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
-    @Operation(summary = "Mettre à jour un volume", description = "Met à jour les informations d'un volume existant")
+    @Operation(summary = "Mettre à jour un volume", description = "Met à jour les informations d'un volume existant. "
+            + "Seuls les champs simples sont copiés ; le manga n'est changé que si le corps en donne l'id "
+            + "(\"manga\": {\"id\": ...}), ses autres champs sont ignorés. Sans manga, le volume garde le sien.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Volume mis à jour avec succès",
                     content = @Content(schema = @Schema(implementation = Volume.class))),
+        @ApiResponse(responseCode = "400", description = "Manga indiqué inexistant"),
         @ApiResponse(responseCode = "404", description = "Volume non trouvé")
     })
     @PutMapping("/{id}")
@@ -119,8 +126,27 @@ public class VolumeController {
             @Parameter(description = "Détails du volume mis à jour") @RequestBody Volume volume) {
         return volumeRepository.findById(id)
                 .map(existingVolume -> {
-                    volume.setId(id);
-                    return ResponseEntity.ok(volumeRepository.save(volume));
+                    // Copie des seuls champs simples : fusionner le corps de la requête viderait
+                    // les collections (contenus, lignes de panier) qu'il ne transporte pas
+                    existingVolume.setTitle(volume.getTitle());
+                    existingVolume.setNumber(volume.getNumber());
+                    existingVolume.setCoverUrl(volume.getCoverUrl());
+                    existingVolume.setMalId(volume.getMalId());
+                    existingVolume.setIsbn(volume.getIsbn());
+                    existingVolume.setPageCount(volume.getPageCount());
+                    existingVolume.setPrice(volume.getPrice());
+                    existingVolume.setReleaseDate(volume.getReleaseDate());
+                    if (volume.getManga() != null && volume.getManga().getId() != null) {
+                        Long mangaId = volume.getManga().getId();
+                        if (!mangaRepository.existsById(mangaId)) {
+                            return ResponseEntity.badRequest().<Volume>build();
+                        }
+                        // Référence seule : le manga n'est pas chargé, ni modifié par le corps de la requête
+                        existingVolume.setManga(mangaRepository.getReferenceById(mangaId));
+                    }
+                    volumeRepository.save(existingVolume);
+                    // Relecture avec le manga initialisé : le volume chargé n'a qu'un proxy de manga
+                    return ResponseEntity.ok(volumeRepository.findDetailById(id).orElseThrow());
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -135,6 +161,7 @@ public class VolumeController {
             @Parameter(description = "ID du volume") @PathVariable Long id) {
         return volumeRepository.findById(id)
                 .map(volume -> {
+                    shopCartRepository.removeVolumeFromAllCarts(id);
                     volumeRepository.delete(volume);
                     return ResponseEntity.ok().<Void>build();
                 })
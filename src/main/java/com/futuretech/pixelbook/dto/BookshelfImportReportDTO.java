@@ -0,0 +1,85 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d'un import de bibliothèque : compteurs globaux et erreurs ligne par ligne.
+ * Le détail des erreurs est plafonné pour que la réponse reste bornée ; errorCount reste exact.
+ */
+public class BookshelfImportReportDTO {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int totalRows;
+    private int imported;
+    private int alreadyPresent;
+    private int errorCount;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        totalRows++;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addAlreadyPresent(int count) {
+        alreadyPresent += count;
+    }
+
+    public void addError(int line, String reference, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, reference, message));
+        }
+    }
+
+    // Getters
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getAlreadyPresent() {
+        return alreadyPresent;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Ligne rejetée : numéro de ligne dans le fichier, référence lue et raison du rejet.
+     */
+    public static class RowError {
+        private final int line;
+        private final String reference;
+        private final String message;
+
+        public RowError(int line, String reference, String message) {
+            this.line = line;
+            this.reference = reference;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.Date;
+
+/**
+ * Ligne de bibliothèque en lecture seule, construite directement par une projection JPQL
+ * (contents → volumes → mangas) sans hydrater les entités.
+ */
+public class BookshelfItemDTO {
+    private final Long id;
+    private final Date addedAt;
+    private final boolean read;
+    private final Date readAt;
+    private final VolumeSummary volume;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du ContentRepository
+    public BookshelfItemDTO(Long id, Date addedAt, boolean read, Date readAt,
+                            Long volumeId, String volumeTitle, Integer number, String coverUrl,
+                            Double price, Long mangaId, String mangaTitle) {
+        this.id = id;
+        this.addedAt = addedAt;
+        this.read = read;
+        this.readAt = readAt;
+        this.volume = new VolumeSummary(volumeId, volumeTitle, number, coverUrl, price, mangaId, mangaTitle);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Date getAddedAt() {
+        return addedAt;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public Date getReadAt() {
+        return readAt;
+    }
+
+    public VolumeSummary getVolume() {
+        return volume;
+    }
+
+    /**
+     * Informations du volume exposées au front, à plat (le manga est réduit à son id et son titre).
+     */
+    public static class VolumeSummary {
+        private final Long id;
+        private final String title;
+        private final Integer number;
+        private final String coverUrl;
+        private final Double price;
+        private final Long mangaId;
+        private final String mangaTitle;
+
+        public VolumeSummary(Long id, String title, Integer number, String coverUrl,
+                             Double price, Long mangaId, String mangaTitle) {
+            this.id = id;
+            this.title = title;
+            this.number = number;
+            this.coverUrl = coverUrl;
+            this.price = price;
+            this.mangaId = mangaId;
+            this.mangaTitle = mangaTitle;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public Integer getNumber() {
+            return number;
+        }
+
+        public String getCoverUrl() {
+            return coverUrl;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public Long getMangaId() {
+            return mangaId;
+        }
+
+        public String getMangaTitle() {
+            return mangaTitle;
+        }
+    }
+}
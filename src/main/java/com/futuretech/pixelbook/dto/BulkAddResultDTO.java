@@ -0,0 +1,62 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'un ajout multiple au panier ou à la bibliothèque, volume par volume.
+ */
+public class BulkAddResultDTO {
+    public static final String ADDED = "ADDED";
+    public static final String ALREADY_PRESENT = "ALREADY_PRESENT";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private int added;
+    private int alreadyPresent;
+    private int notFound;
+    private final List<VolumeResult> results = new ArrayList<>();
+
+    public void add(Long volumeId, String status) {
+        results.add(new VolumeResult(volumeId, status));
+        switch (status) {
+            case ADDED -> added++;
+            case ALREADY_PRESENT -> alreadyPresent++;
+            default -> notFound++;
+        }
+    }
+
+    // Getters
+    public int getAdded() {
+        return added;
+    }
+
+    public int getAlreadyPresent() {
+        return alreadyPresent;
+    }
+
+    public int getNotFound() {
+        return notFound;
+    }
+
+    public List<VolumeResult> getResults() {
+        return results;
+    }
+
+    public static class VolumeResult {
+        private final Long volumeId;
+        private final String status;
+
+        public VolumeResult(Long volumeId, String status) {
+            this.volumeId = volumeId;
+            this.status = status;
+        }
+
+        public Long getVolumeId() {
+            return volumeId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
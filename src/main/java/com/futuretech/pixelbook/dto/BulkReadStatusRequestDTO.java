@@ -0,0 +1,57 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.List;
+
+/**
+ * Cible d'une mise à jour du statut de lecture en masse : une liste d'ids de volumes,
+ * ou un manga avec une plage de numéros de volumes optionnelle (bornes incluses).
+ */
+public class BulkReadStatusRequestDTO {
+    private List<Long> volumeIds;
+    private Long mangaId;
+    private Integer fromNumber;
+    private Integer toNumber;
+
+    // Constructeurs
+    public BulkReadStatusRequestDTO() {}
+
+    public BulkReadStatusRequestDTO(List<Long> volumeIds, Long mangaId, Integer fromNumber, Integer toNumber) {
+        this.volumeIds = volumeIds;
+        this.mangaId = mangaId;
+        this.fromNumber = fromNumber;
+        this.toNumber = toNumber;
+    }
+
+    // Getters et Setters
+    public List<Long> getVolumeIds() {
+        return volumeIds;
+    }
+
+    public void setVolumeIds(List<Long> volumeIds) {
+        this.volumeIds = volumeIds;
+    }
+
+    public Long getMangaId() {
+        return mangaId;
+    }
+
+    public void setMangaId(Long mangaId) {
+        this.mangaId = mangaId;
+    }
+
+    public Integer getFromNumber() {
+        return fromNumber;
+    }
+
+    public void setFromNumber(Integer fromNumber) {
+        this.fromNumber = fromNumber;
+    }
+
+    public Integer getToNumber() {
+        return toNumber;
+    }
+
+    public void setToNumber(Integer toNumber) {
+        this.toNumber = toNumber;
+    }
+}
@@ -0,0 +1,77 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'une mise à jour du statut de lecture en masse, volume par volume.
+ */
+public class BulkReadStatusResultDTO {
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String NOT_IN_BOOKSHELF = "NOT_IN_BOOKSHELF";
+
+    private final Long bookshelfId;
+    private final boolean read;
+    private int updated;
+    private int unchanged;
+    private int notInBookshelf;
+    private final List<VolumeResult> results = new ArrayList<>();
+
+    public BulkReadStatusResultDTO(Long bookshelfId, boolean read) {
+        this.bookshelfId = bookshelfId;
+        this.read = read;
+    }
+
+    public void add(Long volumeId, String status) {
+        results.add(new VolumeResult(volumeId, status));
+        switch (status) {
+            case UPDATED -> updated++;
+            case UNCHANGED -> unchanged++;
+            default -> notInBookshelf++;
+        }
+    }
+
+    // Getters
+    public Long getBookshelfId() {
+        return bookshelfId;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getNotInBookshelf() {
+        return notInBookshelf;
+    }
+
+    public List<VolumeResult> getResults() {
+        return results;
+    }
+
+    public static class VolumeResult {
+        private final Long volumeId;
+        private final String status;
+
+        public VolumeResult(Long volumeId, String status) {
+            this.volumeId = volumeId;
+            this.status = status;
+        }
+
+        public Long getVolumeId() {
+            return volumeId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
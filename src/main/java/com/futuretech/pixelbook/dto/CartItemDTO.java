@@ -0,0 +1,70 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.Date;
+
+/**
+ * Ligne de panier en lecture seule, construite par une projection JPQL
+ * (shop_cart_volume → volumes → mangas). L'id est celui du volume.
+ */
+public class CartItemDTO {
+    private final Long id;
+    private final String title;
+    private final Integer number;
+    private final String coverUrl;
+    private final Double price;
+    private final Long mangaId;
+    private final String mangaTitle;
+    private final int quantity;
+    private final Date addedAt;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du ShopCartRepository
+    public CartItemDTO(Long id, String title, Integer number, String coverUrl,
+                       Double price, Long mangaId, String mangaTitle, Integer quantity, Date addedAt) {
+        this.id = id;
+        this.title = title;
+        this.number = number;
+        this.coverUrl = coverUrl;
+        this.price = price;
+        this.mangaId = mangaId;
+        this.mangaTitle = mangaTitle;
+        this.quantity = quantity != null ? quantity : 1;
+        this.addedAt = addedAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Long getMangaId() {
+        return mangaId;
+    }
+
+    public String getMangaTitle() {
+        return mangaTitle;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Date getAddedAt() {
+        return addedAt;
+    }
+}
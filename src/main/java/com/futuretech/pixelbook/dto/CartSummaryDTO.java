@@ -0,0 +1,24 @@
+package com.futuretech.pixelbook.dto;
+
+/**
+ * Totaux du panier calculés par la base (COUNT / SUM), sans charger les volumes.
+ */
+public class CartSummaryDTO {
+    private final long totalItems;
+    private final double totalPrice;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." ; SUM vaut null sur un panier vide
+    public CartSummaryDTO(Long totalItems, Double totalPrice) {
+        this.totalItems = totalItems != null ? totalItems : 0L;
+        this.totalPrice = totalPrice != null ? totalPrice : 0.0;
+    }
+
+    // Getters
+    public long getTotalItems() {
+        return totalItems;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+}
@@ -0,0 +1,24 @@
+package com.futuretech.pixelbook.dto;
+
+/**
+ * Statut de lecture d'un volume dans une bibliothèque, lu par projection avant une mise à jour en masse.
+ */
+public class ContentReadStateDTO {
+    private final Long volumeId;
+    private final boolean read;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du ContentRepository
+    public ContentReadStateDTO(Long volumeId, boolean read) {
+        this.volumeId = volumeId;
+        this.read = read;
+    }
+
+    // Getters
+    public Long getVolumeId() {
+        return volumeId;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+}
@@ -0,0 +1,51 @@
+package com.futuretech.pixelbook.dto;
+
+import java.time.Instant;
+
+/**
+ * État d'un job de téléchargement musical, renvoyé à la soumission et par l'endpoint de suivi.
+ */
+public class MusicJobDTO {
+    private final String id;
+    // QUEUED, DOWNLOADING, CONVERTING, DONE ou FAILED
+    private final String phase;
+    private final String error;
+    private final Instant createdAt;
+    private final Instant finishedAt;
+    // Renseigné uniquement quand le fichier est prêt
+    private final String fileUrl;
+
+    public MusicJobDTO(String id, String phase, String error, Instant createdAt, Instant finishedAt, String fileUrl) {
+        this.id = id;
+        this.phase = phase;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+        this.fileUrl = fileUrl;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFileUrl() {
+        return fileUrl;
+    }
+}
@@ -0,0 +1,21 @@
+package com.futuretech.pixelbook.dto;
+
+public class RefreshTokenRequestDTO {
+    private String refreshToken;
+
+    // Constructeurs
+    public RefreshTokenRequestDTO() {}
+
+    public RefreshTokenRequestDTO(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters et Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,30 @@
+package com.futuretech.pixelbook.dto;
+
+/**
+ * Token d'accès court et refresh token associé, renvoyés à la connexion et à chaque rafraîchissement.
+ */
+public class TokenPairDTO {
+    private final String token;
+    private final String refreshToken;
+    // Durée de vie du token d'accès, en secondes
+    private final long expiresIn;
+
+    public TokenPairDTO(String token, String refreshToken, long expiresIn) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    // Getters
+    public String getToken() {
+        return token;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
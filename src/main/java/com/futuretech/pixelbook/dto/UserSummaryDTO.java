@@ -0,0 +1,41 @@
+package com.futuretech.pixelbook.dto;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Vue réduite d'un utilisateur (sans mot de passe ni bibliothèque/panier), construite par une
+ * projection JPQL : les associations @OneToOne côté inverse ne sont jamais chargées.
+ * Mise en cache par {@link com.futuretech.pixelbook.service.UserProfileService}.
+ */
+public class UserSummaryDTO implements Serializable {
+    private final Long id;
+    private final String email;
+    private final Date createdAt;
+    private final Long skinId;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du UserRepository
+    public UserSummaryDTO(Long id, String email, Date createdAt, Long skinId) {
+        this.id = id;
+        this.email = email;
+        this.createdAt = createdAt;
+        this.skinId = skinId;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getSkinId() {
+        return skinId;
+    }
+}
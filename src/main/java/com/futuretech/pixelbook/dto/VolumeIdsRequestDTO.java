@@ -0,0 +1,26 @@
+package com.futuretech.pixelbook.dto;
+
+import java.util.List;
+
+/**
+ * Corps des endpoints d'ajout multiple : la liste des ids de volumes à ajouter.
+ */
+public class VolumeIdsRequestDTO {
+    private List<Long> volumeIds;
+
+    // Constructeurs
+    public VolumeIdsRequestDTO() {}
+
+    public VolumeIdsRequestDTO(List<Long> volumeIds) {
+        this.volumeIds = volumeIds;
+    }
+
+    // Getters et Setters
+    public List<Long> getVolumeIds() {
+        return volumeIds;
+    }
+
+    public void setVolumeIds(List<Long> volumeIds) {
+        this.volumeIds = volumeIds;
+    }
+}
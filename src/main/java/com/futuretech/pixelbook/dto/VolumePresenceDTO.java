@@ -0,0 +1,25 @@
+package com.futuretech.pixelbook.dto;
+
+/**
+ * Volume existant et indicateur de présence dans un panier ou une bibliothèque,
+ * lus en une seule requête avant un ajout multiple.
+ */
+public class VolumePresenceDTO {
+    private final Long volumeId;
+    private final boolean present;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du VolumeRepository (COUNT de la sous-requête)
+    public VolumePresenceDTO(Long volumeId, Long presentCount) {
+        this.volumeId = volumeId;
+        this.present = presentCount != null && presentCount > 0;
+    }
+
+    // Getters
+    public Long getVolumeId() {
+        return volumeId;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+}
@@ -0,0 +1,37 @@
+package com.futuretech.pixelbook.dto;
+
+/**
+ * Identifiants d'un volume (id, MAL, numéro, ISBN), lus par projection pour résoudre
+ * en lot les références d'un fichier d'import sans hydrater les entités.
+ */
+public class VolumeRefDTO {
+    private final Long id;
+    private final Long malId;
+    private final Integer number;
+    private final String isbn;
+
+    // Constructeur utilisé par l'expression "SELECT new ..." du VolumeRepository
+    public VolumeRefDTO(Long id, Long malId, Integer number, String isbn) {
+        this.id = id;
+        this.malId = malId;
+        this.number = number;
+        this.isbn = isbn;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getMalId() {
+        return malId;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+}
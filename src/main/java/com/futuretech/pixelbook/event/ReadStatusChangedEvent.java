@@ -0,0 +1,39 @@
+package com.futuretech.pixelbook.event;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Publié une fois par modification du statut de lecture, qu'elle porte sur un volume ou sur une série entière.
+ * Seuls les volumes dont le statut a réellement changé sont listés.
+ */
+public class ReadStatusChangedEvent {
+    private final Long bookshelfId;
+    private final List<Long> volumeIds;
+    private final boolean read;
+    private final Date changedAt;
+
+    public ReadStatusChangedEvent(Long bookshelfId, List<Long> volumeIds, boolean read, Date changedAt) {
+        this.bookshelfId = bookshelfId;
+        this.volumeIds = List.copyOf(volumeIds);
+        this.read = read;
+        this.changedAt = changedAt;
+    }
+
+    // Getters
+    public Long getBookshelfId() {
+        return bookshelfId;
+    }
+
+    public List<Long> getVolumeIds() {
+        return volumeIds;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public Date getChangedAt() {
+        return changedAt;
+    }
+}
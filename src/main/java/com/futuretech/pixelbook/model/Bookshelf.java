@@ -3,25 +3,38 @@ package com.futuretech.pixelbook.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 @Entity
 @Table(name = "bookshelves")
+@NamedEntityGraph(
+    name = "Bookshelf.listing",
+    attributeNodes = @NamedAttributeNode(value = "contents", subgraph = "contents"),
+    subgraphs = {
+        @NamedSubgraph(name = "contents", attributeNodes = @NamedAttributeNode(value = "volume", subgraph = "volume")),
+        @NamedSubgraph(name = "volume", attributeNodes = @NamedAttributeNode("manga"))
+    }
+)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Bookshelf {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookshelves_seq")
+    @SequenceGenerator(name = "bookshelves_seq", sequenceName = "bookshelves_seq", allocationSize = 50)
     private Long id;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference
     private User user;
@@ -29,11 +42,4 @@ public class Bookshelf {
     @OneToMany(mappedBy = "bookshelf", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<Content> contents = new ArrayList<>();
-
-    @Override
-    public int hashCode() {
-        // Utiliser uniquement l'id pour éviter la récursion
-        return Objects.hash(id);
-        // Ne pas inclure user dans le calcul du hashCode
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.futuretech.pixelbook.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.ColumnDefault;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Ligne de panier (table shop_cart_volume) : un volume, sa quantité et sa date d'ajout.
+ * Les ajouts, changements de quantité et retraits passent par des requêtes ciblées du ShopCartRepository.
+ */
+@Entity
+@Table(name = "shop_cart_volume")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItem {
+
+    @EmbeddedId
+    @JsonIgnore
+    private CartItemId id = new CartItemId();
+
+    @MapsId("shopCartId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shop_cart_id")
+    @JsonBackReference
+    @ToString.Exclude
+    private ShopCart shopCart;
+
+    // Sérialisé via ShopCart.getVolumes() ; la ligne n'expose que l'id du volume
+    @MapsId("volumeId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "volume_id")
+    @JsonIgnore
+    @ToString.Exclude
+    private Volume volume;
+
+    // Valeurs par défaut dans le DDL : les lignes existantes reçoivent quantity = 1 lors de la mise à jour du schéma
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int quantity = 1;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date addedAt;
+
+    public Long getVolumeId() {
+        return id.getVolumeId();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CartItem)) {
+            return false;
+        }
+        return Objects.equals(id, ((CartItem) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // Uniquement la clé : ne pas initialiser le panier ni le volume (LAZY)
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,25 @@
+package com.futuretech.pixelbook.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Clé composite d'une ligne de panier : (panier, volume), un volume n'apparaissant qu'une fois par panier.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemId implements Serializable {
+
+    @Column(name = "shop_cart_id")
+    private Long shopCartId;
+
+    @Column(name = "volume_id")
+    private Long volumeId;
+}
@@ -3,27 +3,41 @@ package com.futuretech.pixelbook.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import java.util.Date;
 
 @Entity
-@Table(name = "contents")
+@Table(name = "contents", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_contents_bookshelf_volume", columnNames = {"bookshelf_id", "volume_id"})
+})
+@NamedEntityGraph(
+    name = "Content.listing",
+    attributeNodes = @NamedAttributeNode(value = "volume", subgraph = "volume"),
+    subgraphs = @NamedSubgraph(name = "volume", attributeNodes = @NamedAttributeNode("manga"))
+)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Content {
     
     @Id
+    @EqualsAndHashCode.Include
+    // Id attribué par la base (défaut de colonne sur contents_seq) : les contenus sont créés par des INSERT
+    // natifs en lot, qui partagent ainsi le même générateur que l'entité
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bookshelf_id")
     @JsonBackReference
     private Bookshelf bookshelf;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "volume_id")
     private Volume volume;
     
@@ -34,4 +48,4 @@ public class Content {
 
     @Temporal(TemporalType.TIMESTAMP)
     private Date readAt;
-} 
\ No newline at end of file
+}
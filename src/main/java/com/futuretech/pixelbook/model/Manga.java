@@ -3,20 +3,30 @@ package com.futuretech.pixelbook.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "mangas")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Manga {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mangas_seq")
+    @SequenceGenerator(name = "mangas_seq", sequenceName = "mangas_seq", allocationSize = 50)
     private Long id;
     
     private String title;
@@ -30,6 +40,7 @@ public class Manga {
     
     @JsonIgnore
     @OneToMany(mappedBy = "manga", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Volume> volumes = new ArrayList<>();
     
     // Plus besoin de ces relations directes qui sont maintenant gérées via Volume
@@ -40,4 +51,4 @@ public class Manga {
     @JsonIgnore
     @Transient
     private List<ShopCart> shopCarts = new ArrayList<>();
-} 
\ No newline at end of file
+}
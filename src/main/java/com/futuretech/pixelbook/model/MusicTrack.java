@@ -0,0 +1,50 @@
+package com.futuretech.pixelbook.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Index des pistes déjà converties : une ligne par (nœud, vidéo, format, débit), pointant vers le fichier
+ * sur le disque de ce nœud. Conservé en base pour que le cache survive aux redémarrages.
+ */
+@Entity
+@Table(name = "music_tracks", uniqueConstraints = @UniqueConstraint(
+        name = "uk_music_tracks_node_key", columnNames = {"node", "video_id", "format", "bitrate"}))
+@Data
+@NoArgsConstructor
+public class MusicTrack {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "music_tracks_seq")
+    @SequenceGenerator(name = "music_tracks_seq", sequenceName = "music_tracks_seq", allocationSize = 50)
+    private Long id;
+
+    // Instance propriétaire du fichier (pixelbook.music.node-id) : les chemins ne valent que sur son disque
+    @Column(nullable = false, length = 128)
+    private String node;
+
+    // ID YouTube, ou "url-" + SHA-256 de l'URL pour les autres sources
+    @Column(name = "video_id", nullable = false, length = 80)
+    private String videoId;
+
+    @Column(nullable = false, length = 8)
+    private String format;
+
+    @Column(nullable = false, length = 16)
+    private String bitrate;
+
+    @Column(nullable = false, length = 512)
+    private String path;
+
+    private Long size;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    // Dernière demande servie par cette piste : base de l'éviction par âge et par taille
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastAccessedAt;
+}
@@ -3,32 +3,52 @@ package com.futuretech.pixelbook.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import java.util.HashSet;
-import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "shop_carts")
+@NamedEntityGraph(
+    name = "ShopCart.listing",
+    attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items"),
+    subgraphs = {
+        @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "volume", subgraph = "volume")),
+        @NamedSubgraph(name = "volume", attributeNodes = @NamedAttributeNode("manga"))
+    }
+)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShopCart {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shop_carts_seq")
+    @SequenceGenerator(name = "shop_carts_seq", sequenceName = "shop_carts_seq", allocationSize = 50)
     private Long id;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference
     private User user;
     
-    @ManyToMany
-    @JoinTable(
-        name = "shop_cart_volume",
-        joinColumns = @JoinColumn(name = "shop_cart_id"),
-        inverseJoinColumns = @JoinColumn(name = "volume_id")
-    )
-    private Set<Volume> volumes = new HashSet<>();
-} 
\ No newline at end of file
+    @OneToMany(mappedBy = "shopCart", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("addedAt ASC")
+    @JsonManagedReference
+    private List<CartItem> items = new ArrayList<>();
+
+    // Vue en lecture seule conservée pour les clients existants : les volumes des lignes, dans l'ordre d'ajout
+    @JsonProperty(value = "volumes", access = JsonProperty.Access.READ_ONLY)
+    public List<Volume> getVolumes() {
+        return items.stream().map(CartItem::getVolume).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,41 @@
+package com.futuretech.pixelbook.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Révocation de tokens d'accès, relue périodiquement par chaque instance de l'API.
+ * Avec un jti : ce token seul (déconnexion). Sans jti : tous les tokens de l'utilisateur émis
+ * avant revokedAt (changement de mot de passe). La ligne est inutile après expiresAt.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+    @Index(name = "idx_token_revocations_revoked_at", columnList = "revokedAt"),
+    @Index(name = "idx_token_revocations_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_revocations_seq")
+    @SequenceGenerator(name = "token_revocations_seq", sequenceName = "token_revocations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date revokedAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date expiresAt;
+}
@@ -1,25 +1,34 @@
 package com.futuretech.pixelbook.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Entity
 @Table(name = "volumes")
+@NamedEntityGraph(name = "Volume.detail", attributeNodes = @NamedAttributeNode("manga"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Volume {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "volumes_seq")
+    @SequenceGenerator(name = "volumes_seq", sequenceName = "volumes_seq", allocationSize = 50)
     private Long id;
     
     private String title;
@@ -31,7 +40,7 @@ public class Volume {
     private Double price;
     private String releaseDate;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manga_id")
     private Manga manga;
     
@@ -39,7 +48,8 @@ public class Volume {
     @JsonIgnore
     private List<Content> contents = new ArrayList<>();
     
-    @ManyToMany(mappedBy = "volumes")
+    // Lignes de panier gérées uniquement par les requêtes de ShopCartRepository : pas de cascade
+    @OneToMany(mappedBy = "volume")
     @JsonIgnore
-    private Set<ShopCart> shopCarts = new HashSet<>();
-} 
\ No newline at end of file
+    private List<CartItem> cartItems = new ArrayList<>();
+}
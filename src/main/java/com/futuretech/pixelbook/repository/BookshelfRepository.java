@@ -2,13 +2,35 @@ package com.futuretech.pixelbook.repository;
 
 import com.futuretech.pixelbook.model.Bookshelf;
 import com.futuretech.pixelbook.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookshelfRepository extends JpaRepository<Bookshelf, Long> {
+    // Contenus, volumes et mangas chargés en une requête pour la sérialisation (graphe "Bookshelf.listing")
+    @Override
+    @EntityGraph("Bookshelf.listing")
+    List<Bookshelf> findAll();
+
+    @Override
+    @EntityGraph("Bookshelf.listing")
+    Optional<Bookshelf> findById(Long id);
+
     Optional<Bookshelf> findByUser(User user);
     Optional<Bookshelf> findByUserId(Long userId);
+
+    // Récupère uniquement l'id, sans charger la bibliothèque ni son utilisateur
+    @Query("SELECT b.id FROM Bookshelf b WHERE b.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Bookshelf b WHERE b.user.id = :userId")
+    int bulkDeleteByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
@@ -1,25 +1,123 @@
 package com.futuretech.pixelbook.repository;
 
+import com.futuretech.pixelbook.dto.BookshelfItemDTO;
+import com.futuretech.pixelbook.dto.ContentReadStateDTO;
 import com.futuretech.pixelbook.model.Bookshelf;
 import com.futuretech.pixelbook.model.Content;
 import com.futuretech.pixelbook.model.Volume;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ContentRepository extends JpaRepository<Content, Long> {
+public interface ContentRepository extends JpaRepository<Content, Long>, ContentRepositoryCustom {
+    // Volume et manga sont LAZY : les lectures destinées à être sérialisées passent par le graphe "Content.listing"
+    @Override
+    @EntityGraph("Content.listing")
+    List<Content> findAll();
+
+    @Override
+    @EntityGraph("Content.listing")
+    Optional<Content> findById(Long id);
+
+    @EntityGraph("Content.listing")
     List<Content> findByBookshelf(Bookshelf bookshelf);
+    @EntityGraph("Content.listing")
     List<Content> findByBookshelfId(Long bookshelfId);
+    @EntityGraph("Content.listing")
     List<Content> findByVolume(Volume volume);
+    @EntityGraph("Content.listing")
     List<Content> findByVolumeId(Long volumeId);
     
+    @EntityGraph("Content.listing")
     Optional<Content> findByBookshelfIdAndVolumeId(Long bookshelfId, Long volumeId);
     boolean existsByBookshelfIdAndVolumeId(Long bookshelfId, Long volumeId);
     
     @Transactional
     void deleteByBookshelfIdAndVolumeId(Long bookshelfId, Long volumeId);
-} 
\ No newline at end of file
+
+    // Projection à plat de la bibliothèque : une seule requête (plus le count) quelle que soit sa taille
+    @Query(value = "SELECT new com.futuretech.pixelbook.dto.BookshelfItemDTO(" +
+                   "c.id, c.addedAt, c.read, c.readAt, v.id, v.title, v.number, v.coverUrl, v.price, m.id, m.title) " +
+                   "FROM Content c JOIN c.volume v LEFT JOIN v.manga m WHERE c.bookshelf.id = :bookshelfId",
+           countQuery = "SELECT COUNT(c) FROM Content c WHERE c.bookshelf.id = :bookshelfId")
+    Page<BookshelfItemDTO> findItemsByBookshelfId(@Param("bookshelfId") Long bookshelfId, Pageable pageable);
+
+    // Même projection, lue par un curseur JDBC en avant seulement (export) : à consommer dans une
+    // transaction en lecture seule et à fermer, sinon PostgreSQL ignore le fetch size et charge tout
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.futuretech.pixelbook.dto.BookshelfItemDTO(" +
+           "c.id, c.addedAt, c.read, c.readAt, v.id, v.title, v.number, v.coverUrl, v.price, m.id, m.title) " +
+           "FROM Content c JOIN c.volume v LEFT JOIN v.manga m WHERE c.bookshelf.id = :bookshelfId ORDER BY c.id")
+    Stream<BookshelfItemDTO> streamItemsByBookshelfId(@Param("bookshelfId") Long bookshelfId);
+
+    // Volumes de la liste déjà présents dans la bibliothèque (import en lot)
+    @Query("SELECT c.volume.id FROM Content c WHERE c.bookshelf.id = :bookshelfId AND c.volume.id IN :volumeIds")
+    List<Long> findVolumeIdsInBookshelf(@Param("bookshelfId") Long bookshelfId,
+                                        @Param("volumeIds") Collection<Long> volumeIds);
+
+    // Statuts de lecture avant une mise à jour en masse : par liste de volumes, ou par manga et plage de numéros
+    @Query("SELECT new com.futuretech.pixelbook.dto.ContentReadStateDTO(c.volume.id, c.read) " +
+           "FROM Content c WHERE c.bookshelf.id = :bookshelfId AND c.volume.id IN :volumeIds")
+    List<ContentReadStateDTO> findReadStatesByVolumeIds(@Param("bookshelfId") Long bookshelfId,
+                                                        @Param("volumeIds") Collection<Long> volumeIds);
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.ContentReadStateDTO(v.id, c.read) " +
+           "FROM Content c JOIN c.volume v WHERE c.bookshelf.id = :bookshelfId AND v.manga.id = :mangaId " +
+           "AND (:fromNumber IS NULL OR v.number >= :fromNumber) AND (:toNumber IS NULL OR v.number <= :toNumber) " +
+           "ORDER BY v.number, v.id")
+    List<ContentReadStateDTO> findReadStatesByManga(@Param("bookshelfId") Long bookshelfId,
+                                                    @Param("mangaId") Long mangaId,
+                                                    @Param("fromNumber") Integer fromNumber,
+                                                    @Param("toNumber") Integer toNumber);
+
+    // Un seul UPDATE pour tous les volumes ; ceux déjà dans l'état demandé ne sont pas touchés
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Content c SET c.read = :read, c.readAt = :readAt " +
+           "WHERE c.bookshelf.id = :bookshelfId AND c.volume.id IN :volumeIds AND c.read <> :read")
+    int bulkUpdateReadStatus(@Param("bookshelfId") Long bookshelfId, @Param("volumeIds") Collection<Long> volumeIds,
+                             @Param("read") boolean read, @Param("readAt") Date readAt);
+
+    // Suppression en masse des contenus de la bibliothèque d'un utilisateur (suppression de compte)
+    @Modifying
+    @Query("DELETE FROM Content c WHERE c.bookshelf.id IN (SELECT b.id FROM Bookshelf b WHERE b.user.id = :userId)")
+    int bulkDeleteByUserId(@Param("userId") Long userId);
+
+    // Ajout idempotent : renvoie 1 si le contenu a été créé, 0 si le volume était déjà dans la bibliothèque
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "contents"))
+    @Query(value = "INSERT INTO contents (bookshelf_id, volume_id, added_at, read) " +
+                   "VALUES (:bookshelfId, :volumeId, CURRENT_TIMESTAMP, false) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addVolumeToBookshelf(@Param("bookshelfId") Long bookshelfId, @Param("volumeId") Long volumeId);
+
+    // Copie ensembliste du panier vers la bibliothèque ; les volumes déjà présents sont ignorés
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "contents"))
+    @Query(value = "INSERT INTO contents (bookshelf_id, volume_id, added_at, read) " +
+                   "SELECT :bookshelfId, scv.volume_id, CURRENT_TIMESTAMP, false " +
+                   "FROM shop_cart_volume scv WHERE scv.shop_cart_id = :cartId " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertFromCart(@Param("bookshelfId") Long bookshelfId, @Param("cartId") Long cartId);
+}
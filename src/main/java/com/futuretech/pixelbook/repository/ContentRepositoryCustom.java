@@ -0,0 +1,17 @@
+package com.futuretech.pixelbook.repository;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Opérations de {@link ContentRepository} écrites en JDBC, hors de portée des requêtes dérivées.
+ */
+public interface ContentRepositoryCustom {
+
+    /**
+     * Ajoute les volumes à la bibliothèque en un seul batch JDBC (INSERT ... ON CONFLICT DO NOTHING).
+     * readFlags est aligné sur volumeIds. Renvoie les volumes réellement insérés : les autres étaient
+     * déjà dans la bibliothèque (ajoutés entre-temps par une requête concurrente).
+     */
+    Set<Long> addVolumesToBookshelf(Long bookshelfId, List<Long> volumeIds, List<Boolean> readFlags);
+}
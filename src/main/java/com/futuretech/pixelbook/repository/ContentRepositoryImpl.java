@@ -0,0 +1,46 @@
+package com.futuretech.pixelbook.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+class ContentRepositoryImpl implements ContentRepositoryCustom {
+
+    private static final String INSERT_CONTENT =
+        "INSERT INTO contents (bookshelf_id, volume_id, added_at, read, read_at) " +
+        "VALUES (?, ?, CURRENT_TIMESTAMP, ?, CASE WHEN ? THEN CURRENT_TIMESTAMP END) " +
+        "ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> addVolumesToBookshelf(Long bookshelfId, List<Long> volumeIds, List<Boolean> readFlags) {
+        // Même connexion que la transaction JPA en cours : les lignes sont visibles des requêtes suivantes
+        GeneratedKeyHolder insertedKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_CONTENT, new String[] {"volume_id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, bookshelfId);
+                    ps.setLong(2, volumeIds.get(i));
+                    ps.setBoolean(3, readFlags.get(i));
+                    ps.setBoolean(4, readFlags.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return volumeIds.size();
+                }
+            },
+            insertedKeys);
+        return InsertedVolumes.of(insertedKeys);
+    }
+}
@@ -0,0 +1,28 @@
+package com.futuretech.pixelbook.repository;
+
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Volumes réellement insérés par un batch INSERT ... ON CONFLICT DO NOTHING, lus dans les clés générées
+ * (RETURNING volume_id) : une ligne écartée par le conflit n'en renvoie pas. Les nombres de lignes du batch
+ * ne suffisent pas, le pilote rend Statement.SUCCESS_NO_INFO pour toutes les lignes réécrites
+ * (reWriteBatchedInserts), insérées ou non.
+ */
+final class InsertedVolumes {
+
+    private InsertedVolumes() {
+    }
+
+    static Set<Long> of(KeyHolder keyHolder) {
+        Set<Long> volumeIds = new HashSet<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            // Une seule colonne demandée ; son nom est en majuscules ou en minuscules selon le pilote
+            volumeIds.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return volumeIds;
+    }
+}
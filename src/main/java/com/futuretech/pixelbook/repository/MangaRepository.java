@@ -1,7 +1,10 @@
 package com.futuretech.pixelbook.repository;
 
 import com.futuretech.pixelbook.model.Manga;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,6 +18,10 @@ public interface MangaRepository extends JpaRepository<Manga, Long> {
     List<Manga> findByAuthorContainingIgnoreCase(String keyword);
     List<Manga> findBySynopsisContainingIgnoreCase(String keyword);
     
-    // Ajout de la méthode pour chercher par malId
+    // Ajout de la méthode pour chercher par malId (résultat mis en cache de requête)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "manga-lookups")
+    })
     Optional<Manga> findByMalId(Long malId);
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.futuretech.pixelbook.repository;
+
+import com.futuretech.pixelbook.model.MusicTrack;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MusicTrackRepository extends JpaRepository<MusicTrack, Long> {
+
+    Optional<MusicTrack> findByNodeAndVideoIdAndFormatAndBitrate(String node, String videoId, String format, String bitrate);
+
+    // Pistes d'un nœud, les moins récemment demandées d'abord (ordre d'éviction)
+    List<MusicTrack> findByNodeOrderByLastAccessedAtAsc(String node);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE MusicTrack t SET t.lastAccessedAt = :accessedAt WHERE t.id = :id")
+    int touch(@Param("id") Long id, @Param("accessedAt") Date accessedAt);
+}
@@ -1,28 +1,96 @@
 package com.futuretech.pixelbook.repository;
 
+import com.futuretech.pixelbook.dto.CartItemDTO;
+import com.futuretech.pixelbook.dto.CartSummaryDTO;
 import com.futuretech.pixelbook.model.ShopCart;
 import com.futuretech.pixelbook.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ShopCartRepository extends JpaRepository<ShopCart, Long> {
+public interface ShopCartRepository extends JpaRepository<ShopCart, Long>, ShopCartRepositoryCustom {
+    // Lignes, volumes et mangas chargés en une requête pour la sérialisation (graphe "ShopCart.listing")
+    @Override
+    @EntityGraph("ShopCart.listing")
+    List<ShopCart> findAll();
+
+    @Override
+    @EntityGraph("ShopCart.listing")
+    Optional<ShopCart> findById(Long id);
+
     Optional<ShopCart> findByUser(User user);
     Optional<ShopCart> findByUserId(Long userId);
+
+    @Query("SELECT sc.id FROM ShopCart sc WHERE sc.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    // Nombre d'articles et prix total calculés en base, quantités comprises
+    @Query("SELECT new com.futuretech.pixelbook.dto.CartSummaryDTO(SUM(ci.quantity), SUM(v.price * ci.quantity)) " +
+           "FROM CartItem ci JOIN ci.volume v WHERE ci.id.shopCartId = :cartId")
+    CartSummaryDTO summarizeCart(@Param("cartId") Long cartId);
+
+    // Lignes du panier en projection : ni Volume ni Manga ne sont hydratés
+    @Query("SELECT new com.futuretech.pixelbook.dto.CartItemDTO(" +
+           "v.id, v.title, v.number, v.coverUrl, v.price, m.id, m.title, ci.quantity, ci.addedAt) " +
+           "FROM CartItem ci JOIN ci.volume v LEFT JOIN v.manga m WHERE ci.id.shopCartId = :cartId ORDER BY v.id")
+    List<CartItemDTO> findItemsByCartId(@Param("cartId") Long cartId);
+
+    // Verrouille la ligne du panier (SELECT ... FOR UPDATE) : sérialise les checkouts et les ajouts concurrents
+    @Query(value = "SELECT id FROM shop_carts WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockIdByUserId(@Param("userId") Long userId);
     
+    // Les "query spaces" limitent l'invalidation du cache de second niveau à la table modifiée
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shop_cart_volume"))
     @Query(value = "DELETE FROM shop_cart_volume WHERE shop_cart_id = :cartId", nativeQuery = true)
-    void detachVolumesFromCart(@Param("cartId") Long cartId);
+    int detachVolumesFromCart(@Param("cartId") Long cartId);
     
+    // Suppression en masse pour la suppression de compte : les lignes d'abord, puis les paniers
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.id.shopCartId IN (SELECT sc.id FROM ShopCart sc WHERE sc.user.id = :userId)")
+    int bulkDeleteItemsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ShopCart sc WHERE sc.user.id = :userId")
+    int bulkDeleteByUserId(@Param("userId") Long userId);
+
+    // Ajout idempotent : renvoie 1 si la ligne a été créée, 0 si le volume était déjà dans le panier
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shop_cart_volume"))
+    @Query(value = "INSERT INTO shop_cart_volume (shop_cart_id, volume_id, quantity, added_at) " +
+                   "VALUES (:cartId, :volumeId, 1, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addVolumeToCart(@Param("cartId") Long cartId, @Param("volumeId") Long volumeId);
+
+    // Mise à jour ciblée de la quantité d'une ligne : renvoie 0 si le volume n'est pas dans le panier
+    @Modifying
+    @Transactional
+    @Query("UPDATE CartItem ci SET ci.quantity = :quantity WHERE ci.id.shopCartId = :cartId AND ci.id.volumeId = :volumeId")
+    int updateQuantity(@Param("cartId") Long cartId, @Param("volumeId") Long volumeId, @Param("quantity") int quantity);
+
+    // Retrait ciblé d'une ligne : renvoie 0 si le volume n'était pas dans le panier
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shop_cart_volume"))
+    @Query(value = "DELETE FROM shop_cart_volume WHERE shop_cart_id = :cartId AND volume_id = :volumeId", nativeQuery = true)
+    int removeVolumeFromCart(@Param("cartId") Long cartId, @Param("volumeId") Long volumeId);
+
+    // Retrait d'un volume de tous les paniers, avant sa suppression
     @Modifying
     @Transactional
-    @Query(value = "INSERT INTO shop_cart_volume (shop_cart_id, volume_id) VALUES (:cartId, :volumeId)", nativeQuery = true)
-    void addVolumeToCart(@Param("cartId") Long cartId, @Param("volumeId") Long volumeId);
-} 
\ No newline at end of file
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shop_cart_volume"))
+    @Query(value = "DELETE FROM shop_cart_volume WHERE volume_id = :volumeId", nativeQuery = true)
+    int removeVolumeFromAllCarts(@Param("volumeId") Long volumeId);
+}
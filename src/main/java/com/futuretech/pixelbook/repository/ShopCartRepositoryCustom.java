@@ -0,0 +1,17 @@
+package com.futuretech.pixelbook.repository;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Opérations de {@link ShopCartRepository} écrites en JDBC, hors de portée des requêtes dérivées.
+ */
+public interface ShopCartRepositoryCustom {
+
+    /**
+     * Ajoute les volumes au panier en un seul batch JDBC (INSERT ... ON CONFLICT DO NOTHING).
+     * Renvoie les volumes réellement insérés : les autres étaient déjà dans le panier
+     * (ajoutés entre-temps par une requête concurrente).
+     */
+    Set<Long> addVolumesToCart(Long cartId, List<Long> volumeIds);
+}
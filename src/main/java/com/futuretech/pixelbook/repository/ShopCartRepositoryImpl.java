@@ -0,0 +1,43 @@
+package com.futuretech.pixelbook.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+class ShopCartRepositoryImpl implements ShopCartRepositoryCustom {
+
+    private static final String INSERT_CART_ITEM =
+        "INSERT INTO shop_cart_volume (shop_cart_id, volume_id, quantity, added_at) " +
+        "VALUES (?, ?, 1, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> addVolumesToCart(Long cartId, List<Long> volumeIds) {
+        // Même connexion que la transaction JPA en cours
+        GeneratedKeyHolder insertedKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_CART_ITEM, new String[] {"volume_id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, cartId);
+                    ps.setLong(2, volumeIds.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return volumeIds.size();
+                }
+            },
+            insertedKeys);
+        return InsertedVolumes.of(insertedKeys);
+    }
+}
@@ -0,0 +1,23 @@
+package com.futuretech.pixelbook.repository;
+
+import com.futuretech.pixelbook.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Révocations encore utiles, enregistrées depuis la dernière synchronisation (toutes instances confondues)
+    @Query("SELECT r FROM TokenRevocation r WHERE r.revokedAt >= :since AND r.expiresAt > :now")
+    List<TokenRevocation> findActiveRevokedSince(@Param("since") Date since, @Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
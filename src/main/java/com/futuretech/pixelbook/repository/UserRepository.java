@@ -1,13 +1,38 @@
 package com.futuretech.pixelbook.repository;
 
+import com.futuretech.pixelbook.dto.UserSummaryDTO;
 import com.futuretech.pixelbook.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+
+    // Projections colonne par colonne : une seule requête sur users, sans bookshelves ni shop_carts
+    @Query("SELECT new com.futuretech.pixelbook.dto.UserSummaryDTO(u.id, u.email, u.createdAt, u.skinId) FROM User u ORDER BY u.id")
+    List<UserSummaryDTO> findAllSummaries();
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.UserSummaryDTO(u.id, u.email, u.createdAt, u.skinId) FROM User u WHERE u.id = :id")
+    Optional<UserSummaryDTO> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.UserSummaryDTO(u.id, u.email, u.createdAt, u.skinId) FROM User u WHERE u.email = :email")
+    Optional<UserSummaryDTO> findSummaryByEmail(@Param("email") String email);
+
+    // Remplacement conditionnel : sans effet si le mot de passe a changé entre-temps
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Dernière étape de la suppression de compte : le contexte de persistance est vidé pour ne pas garder d'entités supprimées
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
+}
@@ -1,18 +1,101 @@
 package com.futuretech.pixelbook.repository;
 
+import com.futuretech.pixelbook.dto.VolumePresenceDTO;
+import com.futuretech.pixelbook.dto.VolumeRefDTO;
 import com.futuretech.pixelbook.model.Manga;
 import com.futuretech.pixelbook.model.Volume;
+import jakarta.persistence.QueryHint;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VolumeRepository extends JpaRepository<Volume, Long> {
+    // Le manga est LAZY : les lectures destinées à être sérialisées le chargent via le graphe "Volume.detail"
+    @Override
+    @EntityGraph("Volume.detail")
+    List<Volume> findAll();
+
+    @Override
+    @EntityGraph("Volume.detail")
+    Optional<Volume> findById(Long id);
+
+    // Lectures fréquentes : résultats mis en cache de requête, entités servies par le cache de second niveau
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "volume-lookups")
+    })
+    @EntityGraph("Volume.detail")
     List<Volume> findByMangaId(Long mangaId);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "volume-lookups")
+    })
+    @EntityGraph("Volume.detail")
     Optional<Volume> findByMangaIdAndNumber(Long mangaId, Integer number);
+
+    @EntityGraph("Volume.detail")
     Optional<Volume> findByMangaAndNumber(Manga manga, Integer number);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "volume-lookups")
+    })
+    @EntityGraph("Volume.detail")
     Optional<Volume> findByMalId(Long malId);
+
+    @EntityGraph("Volume.detail")
     Optional<Volume> findByIsbn(String isbn);
+
+    // Résolution en lot des références d'un import : une requête par type de référence et par lot de lignes.
+    // L'id MAL d'un volume est celui de son manga ; on se rabat sur celui du manga s'il n'est pas renseigné.
+    @Query("SELECT new com.futuretech.pixelbook.dto.VolumeRefDTO(v.id, COALESCE(v.malId, m.malId), v.number, v.isbn) " +
+           "FROM Volume v LEFT JOIN v.manga m WHERE v.id IN :ids")
+    List<VolumeRefDTO> findRefsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.VolumeRefDTO(v.id, COALESCE(v.malId, m.malId), v.number, v.isbn) " +
+           "FROM Volume v LEFT JOIN v.manga m WHERE v.isbn IN :isbns")
+    List<VolumeRefDTO> findRefsByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.VolumeRefDTO(v.id, COALESCE(v.malId, m.malId), v.number, v.isbn) " +
+           "FROM Volume v LEFT JOIN v.manga m WHERE v.malId IN :malIds OR m.malId IN :malIds")
+    List<VolumeRefDTO> findRefsByMalIdIn(@Param("malIds") Collection<Long> malIds);
+
+    // Ajout multiple : volumes existants parmi la liste, et présence de chacun dans le panier / la bibliothèque
+    @Query("SELECT new com.futuretech.pixelbook.dto.VolumePresenceDTO(v.id, " +
+           "(SELECT COUNT(ci) FROM CartItem ci WHERE ci.id.shopCartId = :cartId AND ci.id.volumeId = v.id)) " +
+           "FROM Volume v WHERE v.id IN :ids")
+    List<VolumePresenceDTO> findPresenceInCart(@Param("cartId") Long cartId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.futuretech.pixelbook.dto.VolumePresenceDTO(v.id, " +
+           "(SELECT COUNT(c) FROM Content c WHERE c.bookshelf.id = :bookshelfId AND c.volume.id = v.id)) " +
+           "FROM Volume v WHERE v.id IN :ids")
+    List<VolumePresenceDTO> findPresenceInBookshelf(@Param("bookshelfId") Long bookshelfId, @Param("ids") Collection<Long> ids);
+
+    // Un volume servi par le cache de second niveau ignore le graphe : son manga reste un proxy.
+    // Ces lectures l'initialisent dans la transaction (le manga vient lui aussi du cache).
+    @Transactional(readOnly = true)
+    default Optional<Volume> findDetailById(Long id) {
+        Optional<Volume> volume = findById(id);
+        volume.ifPresent(v -> Hibernate.initialize(v.getManga()));
+        return volume;
+    }
+
+    @Transactional(readOnly = true)
+    default List<Volume> findDetailsByMangaId(Long mangaId) {
+        List<Volume> volumes = findByMangaId(mangaId);
+        volumes.forEach(v -> Hibernate.initialize(v.getManga()));
+        return volumes;
+    }
 } 
\ No newline at end of file
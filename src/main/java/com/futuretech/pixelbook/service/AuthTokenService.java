@@ -0,0 +1,209 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.TokenPairDTO;
+import com.futuretech.pixelbook.model.RefreshToken;
+import com.futuretech.pixelbook.model.TokenRevocation;
+import com.futuretech.pixelbook.model.User;
+import com.futuretech.pixelbook.repository.RefreshTokenRepository;
+import com.futuretech.pixelbook.repository.TokenRevocationRepository;
+import com.futuretech.pixelbook.util.JwtUtil;
+import com.futuretech.pixelbook.util.RevokedTokenSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tokens d'accès courts, refresh tokens stockés côté serveur et révocations.
+ * <p>
+ * Une révocation est enregistrée en base (token_revocations) et appliquée aussitôt à l'instance locale ;
+ * les autres instances la relisent à la synchronisation suivante. La vérification par requête se fait
+ * uniquement en mémoire ({@link RevokedTokenSet}), sans requête.
+ */
+@Service
+public class AuthTokenService {
+
+    // Marge de relecture : transactions commitées après le début de la synchronisation précédente, horloges décalées
+    private static final long SYNC_OVERLAP_MILLIS = 10_000;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private RevokedTokenSet revokedTokens;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${pixelbook.jwt.refresh-validity:30d}")
+    private Duration refreshValidity;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile long lastSyncMillis;
+
+    /** Connexion réussie : nouveau token d'accès et nouveau refresh token. */
+    public TokenPairDTO issueTokens(User user) {
+        String refreshToken = newRefreshToken();
+        Date now = new Date();
+
+        RefreshToken stored = new RefreshToken();
+        stored.setTokenHash(hash(refreshToken));
+        stored.setUser(user);
+        stored.setCreatedAt(now);
+        stored.setExpiresAt(new Date(now.getTime() + refreshValidity.toMillis()));
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.save(stored));
+
+        return new TokenPairDTO(jwtUtil.generateToken(user), refreshToken, jwtUtil.getValidityInMilliseconds() / 1000);
+    }
+
+    /**
+     * Échange un refresh token contre une nouvelle paire (rotation : l'ancien est révoqué).
+     * Un refresh token déjà révoqué présenté à nouveau signale un vol probable : tous les refresh tokens
+     * de l'utilisateur sont alors révoqués. Vide si le token est inconnu, expiré ou révoqué.
+     */
+    public Optional<TokenPairDTO> refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        Date now = new Date();
+        User user = transactionTemplate.execute(status -> {
+            Optional<RefreshToken> storedOpt = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken));
+            if (storedOpt.isEmpty()) {
+                return null;
+            }
+            RefreshToken stored = storedOpt.get();
+            if (stored.getRevokedAt() != null) {
+                refreshTokenRepository.revokeAllByUserId(stored.getUser().getId(), now);
+                return null;
+            }
+            if (stored.getExpiresAt().before(now) || refreshTokenRepository.revokeIfActive(stored.getId(), now) == 0) {
+                return null;
+            }
+            return stored.getUser();
+        });
+        return user == null ? Optional.empty() : Optional.of(issueTokens(user));
+    }
+
+    /**
+     * Déconnexion : révoque le token d'accès présenté et, s'il est fourni, le refresh token de la session.
+     * Un token sans jti (émis avant les révocations individuelles) révoque toutes les sessions de l'utilisateur.
+     */
+    public void logout(Long userId, String accessToken, String refreshToken) {
+        String tokenId = jwtUtil.getTokenId(accessToken);
+        if (tokenId == null) {
+            // Token émis avant l'ajout de la claim jti : il ne peut pas être révoqué seul.
+            // Coupure volontaire de tous les tokens de l'utilisateur émis jusqu'ici, refresh tokens compris
+            revokeAllForUser(userId);
+            return;
+        }
+        Date expiresAt = jwtUtil.getExpiration(accessToken);
+        Date now = new Date();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TokenRevocation revocation = new TokenRevocation();
+            revocation.setJti(tokenId);
+            revocation.setUserId(userId);
+            revocation.setRevokedAt(now);
+            revocation.setExpiresAt(expiresAt);
+            tokenRevocationRepository.save(revocation);
+
+            if (refreshToken != null && !refreshToken.isBlank()) {
+                refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken))
+                        .filter(stored -> stored.getUser().getId().equals(userId))
+                        .ifPresent(stored -> refreshTokenRepository.revokeIfActive(stored.getId(), now));
+            }
+        });
+        revokedTokens.revokeToken(tokenId, expiresAt.getTime());
+    }
+
+    /**
+     * Révoque tous les tokens de l'utilisateur (changement de mot de passe) : refresh tokens, et tokens d'accès
+     * émis avant maintenant. La claim iat est à la seconde : la coupure est arrondie à la seconde inférieure,
+     * pour ne pas rejeter un token émis juste après.
+     */
+    public void revokeAllForUser(Long userId) {
+        Date now = new Date();
+        long cutoffSeconds = now.getTime() / 1000;
+        Date expiresAt = new Date(now.getTime() + jwtUtil.getValidityInMilliseconds());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TokenRevocation revocation = new TokenRevocation();
+            revocation.setUserId(userId);
+            revocation.setRevokedAt(new Date(cutoffSeconds * 1000));
+            revocation.setExpiresAt(expiresAt);
+            tokenRevocationRepository.save(revocation);
+            refreshTokenRepository.revokeAllByUserId(userId, now);
+        });
+        revokedTokens.revokeUserTokens(userId, cutoffSeconds, expiresAt.getTime());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        lastSyncMillis = 0;
+        syncRevocations();
+    }
+
+    /** Relit les révocations enregistrées par toutes les instances depuis la dernière synchronisation. */
+    @Scheduled(cron = "${pixelbook.jwt.revocation-sync-cron:*/5 * * * * *}")
+    public void syncRevocations() {
+        long start = System.currentTimeMillis();
+        Date since = new Date(Math.max(0, lastSyncMillis - SYNC_OVERLAP_MILLIS));
+        List<TokenRevocation> revocations = tokenRevocationRepository.findActiveRevokedSince(since, new Date(start));
+        for (TokenRevocation revocation : revocations) {
+            if (revocation.getJti() != null) {
+                revokedTokens.revokeToken(revocation.getJti(), revocation.getExpiresAt().getTime());
+            } else {
+                revokedTokens.revokeUserTokens(revocation.getUserId(), revocation.getRevokedAt().getTime() / 1000,
+                        revocation.getExpiresAt().getTime());
+            }
+        }
+        lastSyncMillis = start;
+    }
+
+    /** Supprime révocations et refresh tokens expirés, et reconstruit le filtre de Bloom local. */
+    @Scheduled(cron = "${pixelbook.jwt.revocation-purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        Date now = new Date();
+        transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocationRepository.deleteExpired(now);
+            refreshTokenRepository.deleteExpired(now);
+        });
+        revokedTokens.purgeExpired(now.getTime());
+    }
+
+    private String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.futuretech.pixelbook.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.dto.BookshelfItemDTO;
+import com.futuretech.pixelbook.repository.ContentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+/**
+ * Export de la bibliothèque d'un utilisateur en NDJSON ou CSV.
+ * <p>
+ * Les lignes sont lues par un curseur JDBC (projection {@link BookshelfItemDTO}, sans entité gérée)
+ * et écrites au fil de l'eau dans la réponse : la mémoire utilisée ne dépend pas de la taille de la bibliothèque.
+ */
+@Service
+public class BookshelfExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    public static final Set<String> FORMATS = Set.of(FORMAT_NDJSON, FORMAT_CSV);
+
+    private static final String CSV_HEADER =
+        "contentId,addedAt,read,readAt,volumeId,volumeTitle,volumeNumber,price,mangaId,mangaTitle";
+
+    // Vidage régulier pour que le client reçoive les données pendant la lecture du curseur
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Écrit toute la bibliothèque dans le flux. La transaction en lecture seule garde le curseur
+     * ouvert le temps de l'écriture ; le flux de sortie n'est pas fermé ici.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long bookshelfId, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<BookshelfItemDTO> items = contentRepository.streamItemsByBookshelfId(bookshelfId)) {
+            if (FORMAT_CSV.equals(format)) {
+                writeCsv(items, writer);
+            } else {
+                writeNdjson(items, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Stream<BookshelfItemDTO> items, Writer writer) throws IOException {
+        // Un générateur unique : une ligne JSON par contenu, sans tableau englobant
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        int count = 0;
+        for (Iterator<BookshelfItemDTO> it = items.iterator(); it.hasNext(); ) {
+            objectMapper.writeValue(generator, it.next());
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Stream<BookshelfItemDTO> items, Writer writer) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int count = 0;
+        for (Iterator<BookshelfItemDTO> it = items.iterator(); it.hasNext(); ) {
+            BookshelfItemDTO item = it.next();
+            BookshelfItemDTO.VolumeSummary volume = item.getVolume();
+            writer.write(String.join(",",
+                csv(item.getId()),
+                csv(formatDate(dateFormat, item.getAddedAt())),
+                csv(item.isRead()),
+                csv(formatDate(dateFormat, item.getReadAt())),
+                csv(volume.getId()),
+                csv(volume.getTitle()),
+                csv(volume.getNumber()),
+                csv(volume.getPrice()),
+                csv(volume.getMangaId()),
+                csv(volume.getMangaTitle())));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+    }
+
+    private static String formatDate(SimpleDateFormat dateFormat, Date date) {
+        return date == null ? null : dateFormat.format(date);
+    }
+
+    // Échappement RFC 4180 : guillemets doublés, champ entre guillemets s'il contient un séparateur
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
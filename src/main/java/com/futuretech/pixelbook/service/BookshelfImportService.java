@@ -0,0 +1,423 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.BookshelfImportReportDTO;
+import com.futuretech.pixelbook.dto.VolumeRefDTO;
+import com.futuretech.pixelbook.repository.ContentRepository;
+import com.futuretech.pixelbook.repository.VolumeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Import en masse de volumes dans une bibliothèque, depuis un CSV ou un export XML MyAnimeList.
+ * <p>
+ * Le fichier est lu en streaming et traité par lots de {@value #CHUNK_SIZE} lignes : par lot, les
+ * références sont résolues en une requête par type (id, ISBN, id MAL), les volumes déjà présents
+ * sont écartés en une requête, puis les nouveaux contenus sont insérés en un seul batch JDBC.
+ * Les lignes invalides ou introuvables sont rapportées sans interrompre l'import.
+ */
+@Service
+public class BookshelfImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_MAL = "mal";
+    public static final Set<String> FORMATS = Set.of(FORMAT_CSV, FORMAT_MAL);
+
+    static final int CHUNK_SIZE = 500;
+
+    // Garde-fou contre une entrée MAL aberrante (my_read_volumes démesuré)
+    private static final int MAX_VOLUMES_PER_MAL_ENTRY = 500;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    /**
+     * Importe le fichier dans la bibliothèque, dans une seule transaction.
+     * Un fichier illisible (en-tête CSV inexploitable, XML mal formé) lève une IllegalArgumentException
+     * et annule l'import ; une ligne invalide est seulement rapportée.
+     */
+    @Transactional
+    public BookshelfImportReportDTO importFile(Long bookshelfId, String format, InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch(bookshelfId);
+        if (FORMAT_MAL.equals(format)) {
+            readMalXml(in, batch);
+        } else {
+            readCsv(in, batch);
+        }
+        batch.flush();
+        return batch.report;
+    }
+
+    // ----- Lecture CSV -----
+
+    /**
+     * En-tête obligatoire ; colonnes reconnues (casse ignorée) : volumeId, isbn, malId,
+     * volumeNumber (ou volume, number) et read. Le CSV produit par l'export est accepté tel quel.
+     */
+    private void readCsv(InputStream in, ImportBatch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int[] lineNumber = {0};
+
+        List<String> header = readCsvRecord(reader, lineNumber);
+        if (header == null) {
+            throw new IllegalArgumentException("Fichier CSV vide");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Le BOM éventuel d'un export tableur est retiré du premier nom de colonne
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        Integer volumeIdColumn = columns.get("volumeid");
+        Integer isbnColumn = columns.get("isbn");
+        Integer malIdColumn = columns.get("malid");
+        Integer numberColumn = firstColumn(columns, "volumenumber", "volume", "number");
+        Integer readColumn = columns.get("read");
+        if (volumeIdColumn == null && isbnColumn == null && malIdColumn == null) {
+            throw new IllegalArgumentException("En-tête CSV invalide : colonne volumeId, isbn ou malId attendue");
+        }
+        if (malIdColumn != null && numberColumn == null && volumeIdColumn == null && isbnColumn == null) {
+            throw new IllegalArgumentException("En-tête CSV invalide : la colonne malId nécessite volumeNumber");
+        }
+
+        List<String> record;
+        while ((record = readCsvRecord(reader, lineNumber)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            int line = lineNumber[0];
+            batch.report.rowRead();
+
+            String volumeId = field(record, volumeIdColumn);
+            String isbn = field(record, isbnColumn);
+            String malId = field(record, malIdColumn);
+            String number = field(record, numberColumn);
+            boolean read = parseBoolean(field(record, readColumn));
+
+            try {
+                if (volumeId != null) {
+                    batch.add(ImportRow.byId(line, Long.parseLong(volumeId), read));
+                } else if (isbn != null) {
+                    batch.add(ImportRow.byIsbn(line, isbn, read));
+                } else if (malId != null && number != null) {
+                    batch.add(ImportRow.byMalId(line, Long.parseLong(malId), Integer.parseInt(number), read));
+                } else {
+                    batch.report.addError(line, String.join(",", record), "Aucune référence de volume");
+                }
+            } catch (NumberFormatException e) {
+                batch.report.addError(line, String.join(",", record), "Identifiant invalide");
+            }
+        }
+    }
+
+    // Lit un enregistrement CSV (RFC 4180) : un champ entre guillemets peut contenir des virgules,
+    // des guillemets doublés et des retours à la ligne. Renvoie null en fin de fichier.
+    private static List<String> readCsvRecord(BufferedReader reader, int[] lineNumber) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber[0]++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                lineNumber[0]++;
+                current.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static Integer firstColumn(Map<String, Integer> columns, String... names) {
+        for (String name : names) {
+            Integer column = columns.get(name);
+            if (column != null) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private static String field(List<String> record, Integer column) {
+        if (column == null || column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value == null) {
+            return false;
+        }
+        String normalized = value.toLowerCase(Locale.ROOT);
+        return normalized.equals("true") || normalized.equals("1") || normalized.equals("yes") || normalized.equals("oui");
+    }
+
+    // ----- Lecture XML MyAnimeList -----
+
+    /**
+     * Export de liste MAL : un élément &lt;manga&gt; par série. MAL n'enregistre pas les volumes
+     * possédés, seulement le nombre de volumes lus : chaque entrée donne les volumes 1 à
+     * my_read_volumes, marqués comme lus.
+     */
+    private void readMalXml(InputStream in, ImportBatch batch) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Pas de DTD ni d'entités externes (XXE) dans un fichier fourni par l'utilisateur
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+            try {
+                Map<String, String> entry = null;
+                int entryLine = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("manga".equals(name)) {
+                            entry = new HashMap<>();
+                            entryLine = reader.getLocation().getLineNumber();
+                        } else if (entry != null) {
+                            entry.put(name, reader.getElementText().trim());
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "manga".equals(reader.getLocalName())) {
+                        addMalEntry(entryLine, entry, batch);
+                        entry = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Fichier XML MyAnimeList invalide: " + e.getMessage(), e);
+        }
+    }
+
+    private void addMalEntry(int line, Map<String, String> entry, ImportBatch batch) {
+        batch.report.rowRead();
+        String title = entry.getOrDefault("series_title", "");
+        String reference = entry.getOrDefault("manga_mangadb_id", "") + " " + title;
+
+        long malId;
+        int readVolumes;
+        try {
+            malId = Long.parseLong(entry.getOrDefault("manga_mangadb_id", ""));
+            readVolumes = Integer.parseInt(entry.getOrDefault("my_read_volumes", "0"));
+        } catch (NumberFormatException e) {
+            batch.report.addError(line, reference.trim(), "Identifiant invalide");
+            return;
+        }
+        if (readVolumes <= 0) {
+            batch.report.addError(line, reference.trim(), "Aucun volume lu pour cette entrée");
+            return;
+        }
+        if (readVolumes > MAX_VOLUMES_PER_MAL_ENTRY) {
+            batch.report.addError(line, reference.trim(), "Nombre de volumes invalide: " + readVolumes);
+            return;
+        }
+        for (int number = 1; number <= readVolumes; number++) {
+            batch.add(ImportRow.byMalId(line, malId, number, true));
+        }
+    }
+
+    // ----- Résolution et insertion par lots -----
+
+    private class ImportBatch {
+        private final Long bookshelfId;
+        private final BookshelfImportReportDTO report = new BookshelfImportReportDTO();
+        private final List<ImportRow> rows = new ArrayList<>(CHUNK_SIZE);
+
+        ImportBatch(Long bookshelfId) {
+            this.bookshelfId = bookshelfId;
+        }
+
+        void add(ImportRow row) {
+            rows.add(row);
+            if (rows.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<Long, Boolean> toInsert = resolve();
+            rows.clear();
+            if (toInsert.isEmpty()) {
+                return;
+            }
+
+            // Volumes déjà dans la bibliothèque (y compris ceux insérés par un lot précédent)
+            List<Long> existing = contentRepository.findVolumeIdsInBookshelf(bookshelfId, toInsert.keySet());
+            existing.forEach(toInsert::remove);
+            report.addAlreadyPresent(existing.size());
+            if (toInsert.isEmpty()) {
+                return;
+            }
+
+            Set<Long> inserted = contentRepository.addVolumesToBookshelf(
+                bookshelfId, new ArrayList<>(toInsert.keySet()), new ArrayList<>(toInsert.values()));
+            report.addImported(inserted.size());
+            // Les autres ont été insérés entre-temps par une requête concurrente (ON CONFLICT DO NOTHING)
+            report.addAlreadyPresent(toInsert.size() - inserted.size());
+        }
+
+        // Résout les lignes du lot en ids de volumes ; un même volume cité deux fois n'est inséré qu'une fois
+        private Map<Long, Boolean> resolve() {
+            Set<Long> ids = new HashSet<>();
+            Set<String> isbns = new HashSet<>();
+            Set<Long> malIds = new HashSet<>();
+            for (ImportRow row : rows) {
+                if (row.volumeId != null) {
+                    ids.add(row.volumeId);
+                } else if (row.isbn != null) {
+                    isbns.add(row.isbn);
+                } else {
+                    malIds.add(row.malId);
+                }
+            }
+
+            Set<Long> knownIds = new HashSet<>();
+            Map<String, Long> byIsbn = new HashMap<>();
+            Map<String, Long> byMalNumber = new HashMap<>();
+            if (!ids.isEmpty()) {
+                volumeRepository.findRefsByIdIn(ids).forEach(ref -> knownIds.add(ref.getId()));
+            }
+            if (!isbns.isEmpty()) {
+                for (VolumeRefDTO ref : volumeRepository.findRefsByIsbnIn(isbns)) {
+                    byIsbn.merge(ref.getIsbn(), ref.getId(), Math::min);
+                }
+            }
+            if (!malIds.isEmpty()) {
+                // Des doublons (même manga, même numéro) peuvent exister : on retient le plus petit id
+                for (VolumeRefDTO ref : volumeRepository.findRefsByMalIdIn(malIds)) {
+                    if (ref.getNumber() != null && malIds.contains(ref.getMalId())) {
+                        byMalNumber.merge(ref.getMalId() + "#" + ref.getNumber(), ref.getId(), Math::min);
+                    }
+                }
+            }
+
+            Map<Long, Boolean> resolved = new LinkedHashMap<>();
+            for (ImportRow row : rows) {
+                Long volumeId;
+                if (row.volumeId != null) {
+                    volumeId = knownIds.contains(row.volumeId) ? row.volumeId : null;
+                } else if (row.isbn != null) {
+                    volumeId = byIsbn.get(row.isbn);
+                } else {
+                    volumeId = byMalNumber.get(row.malId + "#" + row.number);
+                }
+
+                if (volumeId == null) {
+                    report.addError(row.line, row.reference(), "Volume introuvable");
+                } else if (resolved.containsKey(volumeId)) {
+                    resolved.merge(volumeId, row.read, Boolean::logicalOr);
+                    report.addAlreadyPresent(1);
+                } else {
+                    resolved.put(volumeId, row.read);
+                }
+            }
+            return resolved;
+        }
+    }
+
+    /**
+     * Ligne d'import : un volume désigné par son id, son ISBN ou le couple (id MAL, numéro).
+     */
+    private static class ImportRow {
+        private final int line;
+        private final Long volumeId;
+        private final String isbn;
+        private final Long malId;
+        private final Integer number;
+        private final boolean read;
+
+        private ImportRow(int line, Long volumeId, String isbn, Long malId, Integer number, boolean read) {
+            this.line = line;
+            this.volumeId = volumeId;
+            this.isbn = isbn;
+            this.malId = malId;
+            this.number = number;
+            this.read = read;
+        }
+
+        static ImportRow byId(int line, Long volumeId, boolean read) {
+            return new ImportRow(line, volumeId, null, null, null, read);
+        }
+
+        static ImportRow byIsbn(int line, String isbn, boolean read) {
+            return new ImportRow(line, null, isbn, null, null, read);
+        }
+
+        static ImportRow byMalId(int line, Long malId, Integer number, boolean read) {
+            return new ImportRow(line, null, null, malId, number, read);
+        }
+
+        String reference() {
+            if (volumeId != null) {
+                return "volumeId=" + volumeId;
+            }
+            if (isbn != null) {
+                return "isbn=" + isbn;
+            }
+            return "malId=" + malId + " volume=" + number;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.BulkAddResultDTO;
+import com.futuretech.pixelbook.dto.VolumePresenceDTO;
+import com.futuretech.pixelbook.repository.ContentRepository;
+import com.futuretech.pixelbook.repository.ShopCartRepository;
+import com.futuretech.pixelbook.repository.VolumeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ajout de plusieurs volumes au panier ou à la bibliothèque : une requête IN vérifie l'existence
+ * des volumes et leur présence, puis un seul batch INSERT ... ON CONFLICT DO NOTHING ajoute les autres.
+ */
+@Service
+public class BulkAddService {
+
+    public static final int MAX_VOLUMES = 500;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Transactional
+    public BulkAddResultDTO addToCart(Long cartId, List<Long> volumeIds) {
+        Set<Long> requested = validate(volumeIds);
+        Map<Long, Boolean> presence = toMap(volumeRepository.findPresenceInCart(cartId, requested));
+        List<Long> toInsert = missing(requested, presence);
+        Set<Long> inserted = toInsert.isEmpty() ? Set.of() : shopCartRepository.addVolumesToCart(cartId, toInsert);
+        return buildResult(requested, presence, inserted);
+    }
+
+    @Transactional
+    public BulkAddResultDTO addToBookshelf(Long bookshelfId, List<Long> volumeIds) {
+        Set<Long> requested = validate(volumeIds);
+        Map<Long, Boolean> presence = toMap(volumeRepository.findPresenceInBookshelf(bookshelfId, requested));
+        List<Long> toInsert = missing(requested, presence);
+        Set<Long> inserted = toInsert.isEmpty() ? Set.of()
+            : contentRepository.addVolumesToBookshelf(bookshelfId, toInsert, Collections.nCopies(toInsert.size(), false));
+        return buildResult(requested, presence, inserted);
+    }
+
+    // Liste non vide et bornée ; les doublons sont ignorés, l'ordre de la requête est conservé
+    private static Set<Long> validate(List<Long> volumeIds) {
+        if (volumeIds == null || volumeIds.isEmpty()) {
+            throw new IllegalArgumentException("Aucun volume à ajouter");
+        }
+        if (volumeIds.size() > MAX_VOLUMES) {
+            throw new IllegalArgumentException("Trop de volumes (maximum " + MAX_VOLUMES + ")");
+        }
+        if (volumeIds.contains(null)) {
+            throw new IllegalArgumentException("Id de volume invalide");
+        }
+        return new LinkedHashSet<>(volumeIds);
+    }
+
+    private static Map<Long, Boolean> toMap(List<VolumePresenceDTO> presences) {
+        Map<Long, Boolean> presence = new HashMap<>();
+        presences.forEach(p -> presence.put(p.getVolumeId(), p.isPresent()));
+        return presence;
+    }
+
+    private static List<Long> missing(Set<Long> requested, Map<Long, Boolean> presence) {
+        List<Long> toInsert = new ArrayList<>();
+        for (Long volumeId : requested) {
+            if (Boolean.FALSE.equals(presence.get(volumeId))) {
+                toInsert.add(volumeId);
+            }
+        }
+        return toInsert;
+    }
+
+    private static BulkAddResultDTO buildResult(Set<Long> requested, Map<Long, Boolean> presence, Set<Long> inserted) {
+        BulkAddResultDTO result = new BulkAddResultDTO();
+        for (Long volumeId : requested) {
+            Boolean present = presence.get(volumeId);
+            if (present == null) {
+                result.add(volumeId, BulkAddResultDTO.NOT_FOUND);
+            } else if (present) {
+                result.add(volumeId, BulkAddResultDTO.ALREADY_PRESENT);
+            } else {
+                // Non inséré : ajouté entre-temps par une requête concurrente (ON CONFLICT DO NOTHING)
+                result.add(volumeId, inserted.contains(volumeId)
+                    ? BulkAddResultDTO.ADDED : BulkAddResultDTO.ALREADY_PRESENT);
+            }
+        }
+        return result;
+    }
+}
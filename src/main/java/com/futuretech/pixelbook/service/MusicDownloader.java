@@ -0,0 +1,196 @@
+package com.futuretech.pixelbook.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Téléchargement (yt-dlp) puis conversion en mp3 (FFmpeg) d'une piste, dans le dossier de stockage.
+ * Appelé par les workers de {@link MusicJobService}, jamais sur un thread de requête ; le fichier
+ * produit est ensuite rangé par {@link TrackStore}.
+ */
+@Component
+public class MusicDownloader {
+    private static final Logger logger = LoggerFactory.getLogger(MusicDownloader.class);
+
+    // Lignes de sortie d'un outil reprises dans le message d'erreur
+    private static final int MAX_OUTPUT_LINES = 20;
+
+    private final String storageDir;
+    // Chemins des outils ; vides = emplacements par défaut selon l'OS
+    private final String ytDlpPathOverride;
+    private final String ffmpegPathOverride;
+    // Durée maximale d'un job (téléchargement et conversion) : au-delà le processus en cours est tué
+    private final Duration jobTimeout;
+
+    @Autowired
+    public MusicDownloader(@Value("${pixelbook.music.storage-dir:${user.dir}/downloads}") String storageDir,
+                           @Value("${pixelbook.music.yt-dlp-path:}") String ytDlpPath,
+                           @Value("${pixelbook.music.ffmpeg-path:}") String ffmpegPath,
+                           @Value("${pixelbook.music.job-timeout:15m}") Duration jobTimeout) {
+        this.storageDir = storageDir;
+        this.ytDlpPathOverride = ytDlpPath;
+        this.ffmpegPathOverride = ffmpegPath;
+        this.jobTimeout = jobTimeout;
+    }
+
+    /**
+     * Télécharge puis convertit la piste au débit demandé (ex. "128k") ; {@code onTranscodeStart} est appelé
+     * entre les deux étapes. Lève IllegalStateException (message destiné au client) si un outil échoue
+     * ou si le job dépasse {@code job-timeout}.
+     */
+    public File download(String url, String uniqueId, String bitrate, Runnable onTranscodeStart) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + jobTimeout.toNanos();
+        String filename = "track_" + uniqueId + ".mp3";
+        String webmFilename = "track_" + uniqueId + ".webm";
+        
+        logger.info("Nom de fichier unique généré: {}", filename);
+
+        // Créer un dossier avec un chemin absolu
+        String workingDir = System.getProperty("user.dir");
+        File output = new File(storageDir, filename).getAbsoluteFile();
+        File webmFile = new File(storageDir, webmFilename).getAbsoluteFile();
+        output.getParentFile().mkdirs();
+
+        // Chemin vers yt-dlp selon l'OS
+        String os = System.getProperty("os.name").toLowerCase();
+        String ytDlpPath;
+        String ffmpegPath;
+        
+        if (os.contains("win")) {
+            // Windows - utilise yt-dlp.exe
+            ytDlpPath = workingDir + "/yt-dlp.exe";
+            ffmpegPath = workingDir + "/ffmpeg/bin/ffmpeg.exe";
+        } else {
+            // Linux/Mac - utilise yt-dlp depuis /usr/local/bin
+            ytDlpPath = "/usr/local/bin/yt-dlp";
+            ffmpegPath = "/usr/local/bin/ffmpeg";
+        }
+        if (!ytDlpPathOverride.isBlank()) {
+            ytDlpPath = ytDlpPathOverride;
+        }
+        if (!ffmpegPathOverride.isBlank()) {
+            ffmpegPath = ffmpegPathOverride;
+        }
+        
+        // Vérifier que yt-dlp existe
+        File ytDlpFile = new File(ytDlpPath);
+        if (!ytDlpFile.exists()) {
+            logger.error("yt-dlp n'existe pas à l'emplacement: {}", ytDlpPath);
+            throw new IllegalStateException("yt-dlp non trouvé");
+        }
+        
+        // Vérifier si FFmpeg existe
+        File ffmpegFile = new File(ffmpegPath);
+        if (!ffmpegFile.exists()) {
+            logger.error("FFmpeg non trouvé à : {}", ffmpegFile.getAbsolutePath());
+        }
+        
+        // Télécharger d'abord le fichier sans conversion
+        ProcessBuilder downloadProcessBuilder;
+        
+        if (os.contains("win")) {
+            // Windows - utilise cmd
+            String downloadCommand = String.format("\"%s\" -o \"%s\" %s", 
+                                          ytDlpPath, webmFile.getAbsolutePath(), url);
+            logger.info("Commande de téléchargement Windows : {}", downloadCommand);
+            downloadProcessBuilder = new ProcessBuilder("cmd", "/c", downloadCommand);
+        } else {
+            // Linux/Mac - utilise directement la commande
+            logger.info("Commande de téléchargement Linux : {} -o {} {}", ytDlpPath, webmFile.getAbsolutePath(), url);
+            downloadProcessBuilder = new ProcessBuilder(ytDlpPath, "-o", webmFile.getAbsolutePath(), url);
+        }
+        
+        String downloadOutput = run(downloadProcessBuilder, "yt-dlp", deadline);
+        if (downloadOutput != null) {
+            throw new IllegalStateException("Erreur de téléchargement: " + downloadOutput);
+        }
+        
+        // Vérifier si le fichier webm a été téléchargé
+        if (!webmFile.exists()) {
+            logger.error("Le fichier webm n'a pas été téléchargé");
+            throw new IllegalStateException("Fichier webm non téléchargé");
+        }
+        
+        logger.info("Fichier webm téléchargé avec succès: {}", webmFile.getAbsolutePath());
+        onTranscodeStart.run();
+        
+        // Convertir le fichier webm en mp3 avec FFmpeg
+        ProcessBuilder convertProcessBuilder = new ProcessBuilder(
+            ffmpegPath,
+            "-i", webmFile.getAbsolutePath(),
+            "-vn", "-ab", bitrate, "-ar", "44100", "-y", output.getAbsolutePath()
+        );
+        
+        String convertOutput = run(convertProcessBuilder, "FFmpeg", deadline);
+        Files.deleteIfExists(webmFile.toPath());
+        if (convertOutput != null || !output.exists()) {
+            throw new IllegalStateException("Échec de la conversion: " + (convertOutput != null ? convertOutput : ""));
+        }
+        
+        logger.info("Fichier mp3 créé avec succès: {} (taille: {} bytes)", output.getAbsolutePath(), output.length());
+        return output;
+    }
+
+    /**
+     * Lance le processus et attend sa fin, au plus jusqu'à {@code deadline} (System.nanoTime) ; renvoie sa sortie
+     * en cas d'échec, null s'il s'est terminé normalement. La sortie va dans un fichier temporaire : aucune
+     * lecture bloquante, le worker reste interruptible et le processus est tué au délai dépassé ou à l'interruption.
+     */
+    String run(ProcessBuilder processBuilder, String tool, long deadline) throws IOException, InterruptedException {
+        File log = Files.createTempFile("pixelbook-" + tool.toLowerCase() + "-", ".log").toFile();
+        try {
+            processBuilder.redirectErrorStream(true);
+            processBuilder.redirectOutput(log);
+            logger.info("Commande {}: {}", tool, String.join(" ", processBuilder.command()));
+            Process process = processBuilder.start();
+
+            boolean exited;
+            try {
+                exited = process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // Job annulé ou arrêt de l'application : ne pas laisser le processus orphelin
+                kill(process);
+                throw e;
+            }
+            if (!exited) {
+                kill(process);
+                logger.error("Processus {} tué après dépassement du délai du job ({})", tool, jobTimeout);
+                throw new IllegalStateException("Délai dépassé (" + tool + ")");
+            }
+
+            int exitCode = process.exitValue();
+            logger.info("Processus {} terminé avec code: {}", tool, exitCode);
+            if (exitCode != 0) {
+                String output = tail(log);
+                logger.error("Erreur {}: {}", tool, output);
+                return output;
+            }
+            return null;
+        } finally {
+            Files.deleteIfExists(log.toPath());
+        }
+    }
+
+    // "cmd /c" sous Windows : l'outil est un processus enfant, tué lui aussi
+    private static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static String tail(File log) throws IOException {
+        // Décodage tolérant : la sortie des outils n'est pas forcément en UTF-8 (console Windows)
+        List<String> lines = new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8).lines().toList();
+        return String.join("\n", lines.subList(Math.max(0, lines.size() - MAX_OUTPUT_LINES), lines.size())) + "\n";
+    }
+}
@@ -0,0 +1,289 @@
+package com.futuretech.pixelbook.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jobs de téléchargement musical (yt-dlp puis FFmpeg) exécutés sur un pool dédié et borné.
+ * <p>
+ * La soumission rend la main tout de suite avec l'identifiant du job ; le client suit la phase puis
+ * récupère le fichier une fois le job terminé. Au-delà de {@code queue-capacity} jobs en attente,
+ * la soumission échoue avec {@link SaturatedException} (503 + Retry-After côté contrôleur).
+ * Les jobs terminés sont oubliés après {@code job-retention}.
+ * <p>
+ * Les pistes converties sont conservées dans {@link TrackStore} : une piste déjà connue donne un job
+ * terminé d'emblée, et les demandes simultanées pour une même piste partagent le job en cours.
+ * Métriques : {@value #JOB_TIMER} (durée d'exécution, tag outcome), {@value #WAIT_TIMER} (attente en file),
+ * {@value #REJECTED_COUNTER}, {@value #TRACKED_GAUGE}, {@value #TRACK_REQUESTS_COUNTER} (tag result=hit|shared|miss),
+ * et executor.* (tag name=musicJobs) pour la profondeur de file.
+ */
+@Service
+public class MusicJobService {
+    private static final Logger logger = LoggerFactory.getLogger(MusicJobService.class);
+
+    public static final String JOB_TIMER = "pixelbook.music.job";
+    public static final String WAIT_TIMER = "pixelbook.music.job.wait";
+    public static final String REJECTED_COUNTER = "pixelbook.music.job.rejected";
+    public static final String TRACKED_GAUGE = "pixelbook.music.jobs.tracked";
+    public static final String TRACK_REQUESTS_COUNTER = "pixelbook.music.track.requests";
+    public static final int RETRY_AFTER_SECONDS = 30;
+
+    public enum Phase {
+        QUEUED, DOWNLOADING, CONVERTING, DONE, FAILED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED;
+        }
+    }
+
+    private final MusicDownloader musicDownloader;
+    private final TrackStore trackStore;
+    private final String bitrate;
+    private final ThreadPoolExecutor executor;
+    private final Duration jobRetention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Job en cours par piste : une seule conversion à la fois pour une même clé
+    private final Map<TrackStore.TrackKey, Job> inFlight = new ConcurrentHashMap<>();
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+    private final Counter hitCounter;
+    private final Counter sharedCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public MusicJobService(
+            MusicDownloader musicDownloader,
+            TrackStore trackStore,
+            MeterRegistry meterRegistry,
+            @Value("${pixelbook.music.bitrate:128k}") String bitrate,
+            @Value("${pixelbook.music.workers:2}") int workers,
+            @Value("${pixelbook.music.queue-capacity:20}") int queueCapacity,
+            @Value("${pixelbook.music.job-retention:30m}") Duration jobRetention) {
+        this.musicDownloader = musicDownloader;
+        this.trackStore = trackStore;
+        this.bitrate = bitrate;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("pixelbook-music-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.jobRetention = jobRetention;
+
+        new ExecutorServiceMetrics(executor, "musicJobs", Tags.empty()).bindTo(meterRegistry);
+        this.successTimer = jobTimer("success", meterRegistry);
+        this.failureTimer = jobTimer("failure", meterRegistry);
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Attente en file avant le démarrage d'un job musical")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+                .description("Jobs musicaux refusés (file pleine)")
+                .register(meterRegistry);
+        this.hitCounter = trackRequests("hit", meterRegistry);
+        this.sharedCounter = trackRequests("shared", meterRegistry);
+        this.missCounter = trackRequests("miss", meterRegistry);
+        Gauge.builder(TRACKED_GAUGE, jobs, Map::size)
+                .description("Jobs musicaux suivis (en cours ou terminés récemment)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Renvoie un job pour {@code url} : terminé d'emblée si la piste est déjà stockée, le job en cours
+     * si la même piste est déjà demandée, sinon un nouveau job mis en file (phase QUEUED).
+     */
+    public Job submit(String url) {
+        TrackStore.TrackKey key = trackStore.keyFor(url, bitrate);
+        Optional<File> stored = trackStore.find(key);
+        if (stored.isPresent()) {
+            hitCounter.increment();
+            Job job = new Job(UUID.randomUUID().toString(), url);
+            job.file = stored.get();
+            job.finish(Phase.DONE);
+            job.completion.complete(job.file);
+            jobs.put(job.getId(), job);
+            logger.info("Piste {} déjà stockée, job {} terminé", key, job.getId());
+            return job;
+        }
+
+        boolean[] created = new boolean[1];
+        Job job = inFlight.computeIfAbsent(key, k -> {
+            Job newJob = new Job(UUID.randomUUID().toString(), url);
+            jobs.put(newJob.getId(), newJob);
+            try {
+                executor.execute(() -> run(newJob, k));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(newJob.getId());
+                rejectedCounter.increment();
+                throw new SaturatedException();
+            }
+            created[0] = true;
+            return newJob;
+        });
+        if (created[0]) {
+            missCounter.increment();
+            logger.info("Job musical {} en file pour {}", job.getId(), url);
+        } else {
+            sharedCounter.increment();
+            logger.info("Piste {} déjà en cours, job {} partagé", key, job.getId());
+        }
+        return job;
+    }
+
+    public Optional<Job> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(Job job, TrackStore.TrackKey key) {
+        long startedAt = System.nanoTime();
+        waitTimer.record(Duration.between(job.getCreatedAt(), Instant.now()));
+        job.phase = Phase.DOWNLOADING;
+        try {
+            // Piste stockée entre la soumission et le démarrage (job précédent terminé entre-temps)
+            Optional<File> stored = trackStore.find(key);
+            File file = stored.isPresent()
+                    ? stored.get()
+                    : trackStore.store(key, musicDownloader.download(job.getUrl(), key.videoId() + "_" + System.currentTimeMillis(),
+                            key.bitrate(), () -> job.phase = Phase.CONVERTING));
+            job.file = file;
+            job.finish(Phase.DONE);
+            successTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            logger.info("Job musical {} terminé: {}", job.getId(), file.getAbsolutePath());
+            job.completion.complete(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, "Job interrompu", startedAt, e);
+        } catch (Exception e) {
+            fail(job, e instanceof IllegalStateException ? e.getMessage() : "Erreur: " + e.getMessage(), startedAt, e);
+        } finally {
+            // Après le stockage : une nouvelle demande trouve soit ce job, soit la piste stockée
+            inFlight.remove(key, job);
+        }
+    }
+
+    private void fail(Job job, String error, long startedAt, Exception cause) {
+        job.error = error;
+        job.finish(Phase.FAILED);
+        failureTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        logger.error("Job musical {} en échec: {}", job.getId(), error);
+        job.completion.completeExceptionally(cause);
+    }
+
+    /**
+     * Oublie les jobs terminés depuis plus de {@code job-retention} (les fichiers restent sur disque).
+     */
+    @Scheduled(cron = "${pixelbook.music.job-purge-cron:0 */5 * * * *}")
+    public void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.getPhase().isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private static Counter trackRequests(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(TRACK_REQUESTS_COUNTER)
+                .description("Demandes de pistes : déjà stockée, job partagé ou nouvelle conversion")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer jobTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(JOB_TIMER)
+                .description("Durée d'un job musical (téléchargement et conversion)")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrompt les workers : attente du processus interruptible (sortie redirigée vers un fichier),
+        // MusicDownloader tue alors les processus yt-dlp/FFmpeg en cours
+        executor.shutdownNow();
+    }
+
+    /** Job de téléchargement ; les champs mutables sont écrits par le worker et lus par les requêtes de suivi. */
+    public static class Job {
+        private final String id;
+        private final String url;
+        private final Instant createdAt = Instant.now();
+        private final CompletableFuture<File> completion = new CompletableFuture<>();
+        private volatile Phase phase = Phase.QUEUED;
+        private volatile File file;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        Job(String id, String url) {
+            this.id = id;
+            this.url = url;
+        }
+
+        private void finish(Phase finalPhase) {
+            finishedAt = Instant.now();
+            phase = finalPhase;
+        }
+
+        // Getters
+        public String getId() {
+            return id;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        // Terminé normalement avec le fichier mp3, ou exceptionnellement avec la cause de l'échec
+        public CompletableFuture<File> getCompletion() {
+            return completion;
+        }
+    }
+
+    /** File des jobs musicaux pleine : la soumission doit être rejouée plus tard. */
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            super("Trop de téléchargements en cours, veuillez réessayer plus tard");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.util.PasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hachage et vérification BCrypt sur un pool dédié et borné, hors des threads Tomcat.
+ * <p>
+ * Une rafale de connexions ne peut occuper que {@code threads} cœurs ; au-delà de {@code queue-capacity}
+ * tâches en attente (ou après {@code wait-timeout}), l'appel échoue tout de suite avec
+ * {@link SaturatedException}, que les contrôleurs traduisent en 503 + Retry-After.
+ * Métriques : {@value #HASH_TIMER} (durée du calcul, histogramme), {@value #WAIT_TIMER} (attente en file),
+ * {@value #REJECTED_COUNTER}, et executor.* (tag name=passwordHashing) pour la file et les threads actifs.
+ */
+@Service
+public class PasswordHashingService {
+
+    public static final String HASH_TIMER = "pixelbook.password.hash";
+    public static final String WAIT_TIMER = "pixelbook.password.hash.wait";
+    public static final String REJECTED_COUNTER = "pixelbook.password.hash.rejected";
+    public static final int RETRY_AFTER_SECONDS = 2;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            // 0 : un thread par cœur
+            @Value("${pixelbook.password-hashing.threads:0}") int threads,
+            @Value("${pixelbook.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${pixelbook.password-hashing.wait-timeout:5s}") Duration waitTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("pixelbook-bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.matchesTimer = hashTimer("matches", meterRegistry);
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Attente en file avant le calcul BCrypt")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+                .description("Calculs BCrypt refusés (file pleine ou attente trop longue)")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Hachage en arrière-plan, sans que l'appelant n'attende (rehachage après connexion).
+     * Si la file est pleine, le future échoue aussitôt avec {@link SaturatedException}.
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return encodeTimer.record(() -> passwordEncoder.encode(rawPassword));
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new SaturatedException());
+        }
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Hachage produit avec un autre coût que le coût courant (calcul local, sans BCrypt)
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new SaturatedException();
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new SaturatedException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcul du hachage interrompu", e);
+        } catch (ExecutionException e) {
+            // Erreurs de l'encodeur (mot de passe null...) relancées telles quelles
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Erreur lors du calcul du hachage", e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder(HASH_TIMER)
+                .description("Durée d'un calcul BCrypt")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Pool de hachage saturé : la requête doit être rejouée plus tard. */
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            super("Trop de demandes d'authentification en cours, veuillez réessayer");
+        }
+    }
+}
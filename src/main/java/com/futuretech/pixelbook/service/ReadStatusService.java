@@ -0,0 +1,94 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.BulkReadStatusRequestDTO;
+import com.futuretech.pixelbook.dto.BulkReadStatusResultDTO;
+import com.futuretech.pixelbook.dto.ContentReadStateDTO;
+import com.futuretech.pixelbook.event.ReadStatusChangedEvent;
+import com.futuretech.pixelbook.repository.ContentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mise à jour du statut de lecture d'une série ou d'une liste de volumes : une lecture des statuts
+ * actuels, un seul UPDATE, et un seul {@link ReadStatusChangedEvent} pour l'ensemble des volumes modifiés.
+ */
+@Service
+public class ReadStatusService {
+
+    public static final int MAX_VOLUMES = 1000;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * La requête doit désigner une liste de volumes (au plus {@value #MAX_VOLUMES}) ou un manga ;
+     * sinon une IllegalArgumentException est levée.
+     */
+    @Transactional
+    public BulkReadStatusResultDTO updateReadStatus(Long bookshelfId, BulkReadStatusRequestDTO request, boolean read) {
+        List<Long> requestedIds = request.getVolumeIds();
+        boolean byIds = requestedIds != null && !requestedIds.isEmpty();
+        if (byIds == (request.getMangaId() != null)) {
+            throw new IllegalArgumentException("Indiquer soit volumeIds, soit mangaId");
+        }
+        if (byIds && requestedIds.size() > MAX_VOLUMES) {
+            throw new IllegalArgumentException("Trop de volumes (maximum " + MAX_VOLUMES + ")");
+        }
+
+        BulkReadStatusResultDTO result = new BulkReadStatusResultDTO(bookshelfId, read);
+        List<Long> toUpdate = new ArrayList<>();
+
+        if (byIds) {
+            Set<Long> volumeIds = new LinkedHashSet<>(requestedIds);
+            Map<Long, Boolean> states = new HashMap<>();
+            for (ContentReadStateDTO state : contentRepository.findReadStatesByVolumeIds(bookshelfId, volumeIds)) {
+                states.put(state.getVolumeId(), state.isRead());
+            }
+            // Résultats dans l'ordre de la requête
+            for (Long volumeId : volumeIds) {
+                Boolean current = states.get(volumeId);
+                if (current == null) {
+                    result.add(volumeId, BulkReadStatusResultDTO.NOT_IN_BOOKSHELF);
+                } else {
+                    addState(result, toUpdate, volumeId, current, read);
+                }
+            }
+        } else {
+            List<ContentReadStateDTO> states = contentRepository.findReadStatesByManga(
+                bookshelfId, request.getMangaId(), request.getFromNumber(), request.getToNumber());
+            for (ContentReadStateDTO state : states) {
+                addState(result, toUpdate, state.getVolumeId(), state.isRead(), read);
+            }
+        }
+
+        if (!toUpdate.isEmpty()) {
+            Date now = new Date();
+            contentRepository.bulkUpdateReadStatus(bookshelfId, toUpdate, read, read ? now : null);
+            eventPublisher.publishEvent(new ReadStatusChangedEvent(bookshelfId, toUpdate, read, now));
+        }
+        return result;
+    }
+
+    private static void addState(BulkReadStatusResultDTO result, List<Long> toUpdate,
+                                 Long volumeId, boolean current, boolean read) {
+        if (current == read) {
+            result.add(volumeId, BulkReadStatusResultDTO.UNCHANGED);
+        } else {
+            result.add(volumeId, BulkReadStatusResultDTO.UPDATED);
+            toUpdate.add(volumeId);
+        }
+    }
+}
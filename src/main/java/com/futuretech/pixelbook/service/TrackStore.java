@@ -0,0 +1,213 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.model.MusicTrack;
+import com.futuretech.pixelbook.repository.MusicTrackRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage adressé par contenu des pistes converties : une piste est identifiée par (vidéo, format, débit)
+ * et rangée sous {@code <storage-dir>/tracks/track_<videoId>_<bitrate>.<format>}. L'index est en base
+ * ({@link MusicTrack}) mais propre à chaque nœud ({@code pixelbook.music.node-id}), puisque storage-dir est
+ * un disque local : une instance ne voit ni ne supprime les entrées des autres. Une entrée dont le fichier a
+ * disparu est oubliée et la piste est retéléchargée. Les pistes trop anciennes ou au-delà du budget disque
+ * sont évincées périodiquement, les moins récemment demandées d'abord, sauf celles qu'un job encore conservé
+ * ({@code job-retention}) peut servir.
+ */
+@Service
+public class TrackStore {
+    private static final Logger logger = LoggerFactory.getLogger(TrackStore.class);
+
+    public static final String FORMAT = "mp3";
+
+    // Seuls les ID YouTube valides servent tels quels dans un nom de fichier
+    private static final Pattern VIDEO_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    /** Clé d'une piste convertie. */
+    public record TrackKey(String videoId, String format, String bitrate) {
+    }
+
+    private final MusicTrackRepository musicTrackRepository;
+    private final Path tracksDir;
+    private final String node;
+    // Durée sans demande au-delà de laquelle une piste est évincée ; 0 = pas de limite d'âge
+    private final Duration maxAge;
+    // Budget disque des pistes de ce nœud ; 0 = pas de limite de taille
+    private final long maxBytes;
+    // Rétention des jobs terminés (MusicJobService) : une piste demandée depuis moins longtemps peut encore
+    // être servie par GET /jobs/{id}/file et n'est jamais évincée, quitte à dépasser le budget un moment
+    private final Duration jobRetention;
+
+    @Autowired
+    public TrackStore(MusicTrackRepository musicTrackRepository,
+                      @Value("${pixelbook.music.storage-dir:${user.dir}/downloads}") String storageDir,
+                      @Value("${pixelbook.music.node-id:${HOSTNAME:local}}") String node,
+                      @Value("${pixelbook.music.track-max-age:30d}") Duration maxAge,
+                      @Value("${pixelbook.music.track-max-bytes:10737418240}") long maxBytes,
+                      @Value("${pixelbook.music.job-retention:30m}") Duration jobRetention) {
+        this.musicTrackRepository = musicTrackRepository;
+        this.tracksDir = Paths.get(storageDir, "tracks");
+        this.node = node;
+        this.maxAge = maxAge;
+        this.maxBytes = maxBytes;
+        this.jobRetention = jobRetention;
+    }
+
+    /**
+     * Clé de la piste pour cette URL : ID de la vidéo YouTube si on le trouve, sinon empreinte de l'URL.
+     */
+    public TrackKey keyFor(String url, String bitrate) {
+        String videoId = extractVideoId(url);
+        if (videoId == null || !VIDEO_ID.matcher(videoId).matches()) {
+            videoId = "url-" + sha256(url);
+        }
+        return new TrackKey(videoId, FORMAT, bitrate);
+    }
+
+    /**
+     * Fichier déjà converti pour cette clé, s'il est encore sur disque.
+     */
+    public Optional<File> find(TrackKey key) {
+        Optional<MusicTrack> track = musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate(
+                node, key.videoId(), key.format(), key.bitrate());
+        if (track.isEmpty()) {
+            return Optional.empty();
+        }
+        File file = new File(track.get().getPath());
+        if (!file.isFile()) {
+            // Entrée de ce nœud uniquement : le fichier devait être sur notre disque
+            logger.warn("Piste indexée mais absente du disque, entrée supprimée: {}", file.getAbsolutePath());
+            musicTrackRepository.delete(track.get());
+            return Optional.empty();
+        }
+        musicTrackRepository.touch(track.get().getId(), new Date());
+        return Optional.of(file);
+    }
+
+    /**
+     * Range le fichier converti à l'emplacement de sa clé (déplacement atomique) et l'indexe.
+     */
+    public File store(TrackKey key, File transcoded) throws IOException {
+        Files.createDirectories(tracksDir);
+        Path target = tracksDir.resolve("track_" + key.videoId() + "_" + key.bitrate() + "." + key.format());
+        try {
+            Files.move(transcoded.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(transcoded.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        MusicTrack track = musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate(
+                        node, key.videoId(), key.format(), key.bitrate())
+                .orElseGet(MusicTrack::new);
+        Date now = new Date();
+        track.setNode(node);
+        track.setVideoId(key.videoId());
+        track.setFormat(key.format());
+        track.setBitrate(key.bitrate());
+        track.setPath(target.toAbsolutePath().toString());
+        track.setSize(Files.size(target));
+        track.setCreatedAt(now);
+        track.setLastAccessedAt(now);
+        try {
+            musicTrackRepository.save(track);
+        } catch (DataIntegrityViolationException e) {
+            // Même piste indexée en parallèle sur ce nœud : même chemin, rien à faire
+            logger.info("Piste {} déjà indexée", key);
+        }
+        logger.info("Piste {} stockée: {}", key, target.toAbsolutePath());
+        return target.toFile();
+    }
+
+    /**
+     * Évince les pistes de ce nœud non demandées depuis {@code track-max-age}, puis les moins récemment
+     * demandées tant que le total dépasse {@code track-max-bytes}. Les pistes demandées depuis moins de
+     * {@code job-retention} sont conservées. Renvoie le nombre de pistes évincées.
+     */
+    @Scheduled(cron = "${pixelbook.music.track-eviction-cron:0 0 * * * *}")
+    public int evictTracks() {
+        List<MusicTrack> tracks = musicTrackRepository.findByNodeOrderByLastAccessedAtAsc(node);
+        long totalBytes = tracks.stream().mapToLong(track -> track.getSize() != null ? track.getSize() : 0).sum();
+        long now = System.currentTimeMillis();
+        long oldestKept = maxAge.isZero() ? Long.MIN_VALUE : now - maxAge.toMillis();
+        long retainedSince = now - jobRetention.toMillis();
+
+        int evicted = 0;
+        for (MusicTrack track : tracks) {
+            boolean tooOld = track.getLastAccessedAt() == null || track.getLastAccessedAt().getTime() < oldestKept;
+            boolean overBudget = maxBytes > 0 && totalBytes > maxBytes;
+            if (!tooOld && !overBudget) {
+                // Liste triée par dernier accès : les suivantes sont plus récentes et le budget est respecté
+                break;
+            }
+            if (track.getLastAccessedAt() != null && track.getLastAccessedAt().getTime() >= retainedSince) {
+                // Peut-être le fichier d'un job terminé encore conservé, comme toutes les suivantes
+                break;
+            }
+            try {
+                Files.deleteIfExists(Paths.get(track.getPath()));
+            } catch (IOException e) {
+                logger.warn("Suppression de la piste {} impossible, nouvel essai à la prochaine éviction", track.getPath(), e);
+                continue;
+            }
+            musicTrackRepository.delete(track);
+            totalBytes -= track.getSize() != null ? track.getSize() : 0;
+            evicted++;
+        }
+        if (evicted > 0) {
+            logger.info("{} piste(s) évincée(s) sur le nœud {}, {} octets conservés", evicted, node, totalBytes);
+        }
+        return evicted;
+    }
+
+    /**
+     * Extrait l'ID de la vidéo YouTube à partir de l'URL
+     */
+    private String extractVideoId(String url) {
+        try {
+            if (url.contains("youtube.com") || url.contains("youtu.be")) {
+                // Format: https://www.youtube.com/watch?v=VIDEO_ID
+                if (url.contains("?v=")) {
+                    return url.split("\\?v=")[1].split("&")[0];
+                }
+                // Format: https://youtu.be/VIDEO_ID
+                else if (url.contains("youtu.be/")) {
+                    return url.split("youtu\\.be/")[1].split("\\?")[0];
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Impossible d'extraire l'ID de la vidéo de l'URL: {}", url);
+        }
+        return null;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.model.Bookshelf;
+import com.futuretech.pixelbook.model.ShopCart;
+import com.futuretech.pixelbook.model.User;
+import com.futuretech.pixelbook.repository.BookshelfRepository;
+import com.futuretech.pixelbook.repository.ContentRepository;
+import com.futuretech.pixelbook.repository.RefreshTokenRepository;
+import com.futuretech.pixelbook.repository.ShopCartRepository;
+import com.futuretech.pixelbook.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cycle de vie des comptes utilisateur.
+ * <p>
+ * Inscription : utilisateur, bibliothèque et panier sont créés dans une seule transaction.
+ * Suppression : requêtes DELETE en masse, dans l'ordre des dépendances
+ * (refresh_tokens → contents → shop_cart_volume → shop_carts → bookshelves → users), sans charger le graphe d'objets.
+ */
+@Service
+public class UserAccountService {
+
+    public static final String DELETION_TIMER = "pixelbook.users.deletion";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Profil en cache invalidé après le commit de la suppression
+    @Autowired
+    private UserProfileService userProfileService;
+
+    // Les tokens d'accès sont validés sur leurs claims, sans relire l'utilisateur : ils sont révoqués explicitement
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    /**
+     * Crée le compte avec sa bibliothèque et son panier. Le hachage BCrypt (pool dédié, voir
+     * {@link PasswordHashingService}) est fait avant d'ouvrir la transaction pour ne pas garder
+     * une connexion pendant le calcul ; les trois insertions
+     * partent ensuite en cascade depuis User, au flush de l'unique commit.
+     */
+    public User register(User user) {
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
+        if (user.getCreatedAt() == null) {
+            user.setCreatedAt(new Date());
+        }
+
+        Bookshelf bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        user.setBookshelf(bookshelf);
+
+        ShopCart shopCart = new ShopCart();
+        shopCart.setUser(user);
+        user.setShopCart(shopCart);
+
+        return transactionTemplate.execute(status -> userRepository.save(user));
+    }
+
+    /**
+     * Après une connexion réussie, refait le hachage si son coût BCrypt est inférieur au coût courant : le coût
+     * peut ainsi augmenter sans migration de masse. Le calcul et l'UPDATE se font sur le pool BCrypt, après la
+     * réponse ; pool saturé ou erreur : on n'insiste pas, ce sera fait à une prochaine connexion.
+     * Le future vaut true si le nouveau hachage a été enregistré.
+     */
+    public CompletableFuture<Boolean> upgradePasswordHash(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!passwordHashingService.needsRehash(oldHash)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        Long userId = user.getId();
+        return passwordHashingService.encodeAsync(rawPassword)
+                // UPDATE conditionnel sur l'ancien hachage : sans effet si le mot de passe a changé entre-temps
+                .thenApply(newHash -> transactionTemplate.execute(status -> userRepository.updatePasswordHash(userId, oldHash, newHash)))
+                .thenApply(updated -> updated != null && updated > 0)
+                .exceptionally(e -> false);
+    }
+
+    /**
+     * Supprime le compte et tout ce qui en dépend dans une seule transaction, puis révoque ses tokens d'accès.
+     * Renvoie false si l'utilisateur n'existe pas.
+     */
+    public boolean deleteAccount(Long userId) {
+        boolean deleted = timer("sync").record(() -> transactionTemplate.execute(status -> deleteInBulk(userId)));
+        afterDeletion(userId, deleted);
+        return deleted;
+    }
+
+    /**
+     * Variante asynchrone pour les très gros comptes : l'appelant vérifie l'existence puis rend la main.
+     */
+    @Async
+    public CompletableFuture<Boolean> deleteAccountAsync(Long userId) {
+        boolean deleted = timer("async").record(() -> transactionTemplate.execute(status -> deleteInBulk(userId)));
+        afterDeletion(userId, deleted);
+        return CompletableFuture.completedFuture(deleted);
+    }
+
+    private void afterDeletion(Long userId, boolean deleted) {
+        userProfileService.evict(userId);
+        if (deleted) {
+            authTokenService.revokeAllForUser(userId);
+        }
+    }
+
+    private boolean deleteInBulk(Long userId) {
+        refreshTokenRepository.bulkDeleteByUserId(userId);
+        contentRepository.bulkDeleteByUserId(userId);
+        shopCartRepository.bulkDeleteItemsByUserId(userId);
+        shopCartRepository.bulkDeleteByUserId(userId);
+        bookshelfRepository.bulkDeleteByUserId(userId);
+        return userRepository.bulkDeleteById(userId) > 0;
+    }
+
+    private Timer timer(String mode) {
+        return Timer.builder(DELETION_TIMER)
+                .description("Durée de suppression d'un compte utilisateur")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.UserSummaryDTO;
+import com.futuretech.pixelbook.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Profils utilisateur (vue réduite) mis en cache par id, avec un TTL court (cache "userProfiles", ehcache.xml).
+ * Le cache est local à chaque instance : toute modification d'un utilisateur doit appeler {@link #evict(Long)}
+ * après son commit ; le TTL borne le décalage vu par les autres instances.
+ */
+@Service
+public class UserProfileService {
+
+    public static final String CACHE = "userProfiles";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Les utilisateurs inexistants ne sont pas mis en cache
+    @Cacheable(cacheNames = CACHE, key = "#userId", unless = "#result == null")
+    public Optional<UserSummaryDTO> findProfile(Long userId) {
+        return userRepository.findSummaryById(userId);
+    }
+
+    @CacheEvict(cacheNames = CACHE, key = "#userId")
+    public void evict(Long userId) {
+    }
+}
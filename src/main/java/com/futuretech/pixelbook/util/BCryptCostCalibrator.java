@@ -0,0 +1,69 @@
+package com.futuretech.pixelbook.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Choisit le coût BCrypt le plus élevé dont un hachage tient dans la durée cible sur la machine courante.
+ * <p>
+ * Outil en ligne de commande, lancé une fois sur le matériel de production :
+ * {@code java -cp <classpath> com.futuretech.pixelbook.util.BCryptCostCalibrator 250ms} affiche la valeur
+ * à reporter dans {@code pixelbook.password-hashing.bcrypt.strength}. Le coût n'est pas calibré au démarrage :
+ * chaque instance obtiendrait un coût différent et les connexions referaient les hachages en boucle.
+ */
+public final class BCryptCostCalibrator {
+
+    public static final int MIN_STRENGTH = 4;
+    public static final int MAX_STRENGTH = 31;
+
+    private static final String SAMPLE_PASSWORD = "calibration-Pa55word!";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        if (minStrength < MIN_STRENGTH || maxStrength > MAX_STRENGTH || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Bornes de coût BCrypt invalides : " + minStrength + ".." + maxStrength);
+        }
+        long targetNanos = target.toNanos();
+
+        // Échauffement du JIT, pour ne pas surestimer le premier palier mesuré
+        measure(MIN_STRENGTH);
+
+        int best = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long elapsed = measure(strength);
+            if (elapsed > targetNanos) {
+                break;
+            }
+            best = strength;
+            // Le temps double à chaque cran : inutile de mesurer un palier qui dépasserait la cible
+            if (elapsed * 2 > targetNanos) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String[] args) {
+        Duration target = args.length > 0 ? parse(args[0]) : Duration.ofMillis(250);
+        int strength = calibrate(target, PasswordEncoder.DEFAULT_STRENGTH, 16);
+        System.out.println("pixelbook.password-hashing.bcrypt.strength=" + strength
+                + "  # cible " + target.toMillis() + " ms, " + Runtime.getRuntime().availableProcessors() + " cœurs");
+    }
+
+    private static Duration parse(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        return Duration.parse(value);
+    }
+}
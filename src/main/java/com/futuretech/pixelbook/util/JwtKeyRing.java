@@ -0,0 +1,163 @@
+package com.futuretech.pixelbook.util;
+
+import com.futuretech.pixelbook.config.JwtProperties;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Trousseau des clés HMAC de signature JWT, partagé par toutes les instances de l'API.
+ * <p>
+ * Rotation : on ajoute la nouvelle clé avec un {@code notBefore} futur (elle valide déjà les tokens,
+ * mais ne signe qu'à partir de cette date), puis on fixe le {@code notAfter} de l'ancienne clé
+ * au moins une durée de validité de token après ce {@code notBefore}.
+ */
+@Component
+public class JwtKeyRing {
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final List<RingKey> keys;
+    private final Map<String, RingKey> keysById;
+
+    @Autowired
+    public JwtKeyRing(JwtProperties properties) {
+        this(loadKeys(properties));
+    }
+
+    JwtKeyRing(List<RingKey> keys) {
+        if (keys.isEmpty()) {
+            // Sans configuration (développement, tests) : clé aléatoire propre à cette instance
+            logger.warn("Aucune clé JWT configurée (pixelbook.jwt.keys) : clé éphémère générée, "
+                    + "les tokens ne seront valides que sur cette instance et jusqu'à son redémarrage");
+            keys = List.of(new RingKey("ephemeral-" + UUID.randomUUID(),
+                    Keys.secretKeyFor(SignatureAlgorithm.HS256), null, null));
+        }
+        this.keys = List.copyOf(keys);
+        this.keysById = new HashMap<>();
+        for (RingKey key : this.keys) {
+            if (keysById.put(key.id, key) != null) {
+                throw new IllegalStateException("Identifiant de clé JWT en double : " + key.id);
+            }
+        }
+    }
+
+    /** Trousseau à une seule clé aléatoire, pour une instance isolée. */
+    public static JwtKeyRing ephemeral() {
+        return new JwtKeyRing(List.of());
+    }
+
+    /**
+     * Clé de signature courante : parmi les clés dans leur fenêtre, celle dont le notBefore est le plus récent.
+     */
+    public RingKey signingKey(Instant now) {
+        return keys.stream()
+                .filter(key -> key.canSign(now))
+                .max(Comparator.comparing(key -> key.notBefore == null ? Instant.MIN : key.notBefore))
+                .orElseThrow(() -> new IllegalStateException("Aucune clé JWT active pour la signature"));
+    }
+
+    /** Clé de validation d'un token d'après son "kid", ou null si elle est inconnue ou retirée. */
+    public Key verificationKey(String kid, Instant now) {
+        RingKey key = kid == null ? null : keysById.get(kid);
+        return key != null && key.canVerify(now) ? key.key : null;
+    }
+
+    private static List<RingKey> loadKeys(JwtProperties properties) {
+        KeyStore keyStore = null;
+        List<RingKey> keys = new ArrayList<>();
+        for (JwtProperties.SigningKey config : properties.getKeys()) {
+            if (config.getId() == null || config.getId().isBlank()) {
+                throw new IllegalStateException("Clé JWT sans identifiant (pixelbook.jwt.keys[].id)");
+            }
+            Key key;
+            if (config.getSecret() != null && !config.getSecret().isBlank()) {
+                key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(config.getSecret()));
+            } else {
+                if (keyStore == null) {
+                    keyStore = loadKeyStore(properties.getKeystore());
+                }
+                key = readFromKeyStore(keyStore, config.getId(), properties.getKeystore());
+            }
+            keys.add(new RingKey(config.getId(), key, config.getNotBefore(), config.getNotAfter()));
+        }
+        return keys;
+    }
+
+    private static KeyStore loadKeyStore(JwtProperties.Keystore config) {
+        if (config.getLocation() == null) {
+            throw new IllegalStateException("Clé JWT sans secret et aucun keystore configuré (pixelbook.jwt.keystore.location)");
+        }
+        Resource resource = new DefaultResourceLoader().getResource(config.getLocation());
+        try (InputStream in = resource.getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(config.getType());
+            keyStore.load(in, password(config));
+            return keyStore;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Impossible de charger le keystore JWT " + config.getLocation(), e);
+        }
+    }
+
+    private static Key readFromKeyStore(KeyStore keyStore, String alias, JwtProperties.Keystore config) {
+        try {
+            Key key = keyStore.getKey(alias, password(config));
+            if (key == null) {
+                throw new IllegalStateException("Clé JWT introuvable dans le keystore : " + alias);
+            }
+            // Vérifie la longueur minimale exigée pour HS256 et plus
+            return Keys.hmacShaKeyFor(key.getEncoded());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Impossible de lire la clé JWT " + alias, e);
+        }
+    }
+
+    private static char[] password(JwtProperties.Keystore config) {
+        return config.getPassword() == null ? null : config.getPassword().toCharArray();
+    }
+
+    public static final class RingKey {
+        private final String id;
+        private final Key key;
+        private final Instant notBefore;
+        private final Instant notAfter;
+
+        RingKey(String id, Key key, Instant notBefore, Instant notAfter) {
+            this.id = id;
+            this.key = key;
+            this.notBefore = notBefore;
+            this.notAfter = notAfter;
+        }
+
+        boolean canSign(Instant now) {
+            return (notBefore == null || !now.isBefore(notBefore)) && canVerify(now);
+        }
+
+        boolean canVerify(Instant now) {
+            return notAfter == null || now.isBefore(notAfter);
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public Key getKey() { return key; }
+        public Instant getNotBefore() { return notBefore; }
+        public Instant getNotAfter() { return notAfter; }
+    }
+}
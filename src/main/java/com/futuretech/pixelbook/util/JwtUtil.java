@@ -1,39 +1,131 @@
 package com.futuretech.pixelbook.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.futuretech.pixelbook.config.AuthenticatedUser;
+import com.futuretech.pixelbook.config.JwtProperties;
 import com.futuretech.pixelbook.model.User;
 import com.futuretech.pixelbook.repository.UserRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class JwtUtil {
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final long validityInMilliseconds = 3600000; // 1h
+    public static final String USER_ID_CLAIM = "uid";
+
+    private static final int DEFAULT_VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    // Clés partagées entre instances : un token signé par un nœud est valide sur tous les autres
+    private final JwtKeyRing keyRing;
+    private final long validityInMilliseconds;
+
+    // Révocations (déconnexion, changement de mot de passe), vérifiées à chaque lecture d'un token
+    private final RevokedTokenSet revokedTokens;
+
+    // Le parseur est immuable et thread-safe : construit une seule fois pour toutes les requêtes.
+    // La clé de vérification est choisie d'après l'en-tête "kid" du token.
+    private final JwtParser parser;
+
+    // Tokens déjà vérifiés, indexés par empreinte SHA-256 : une requête répétée avec le même token évite
+    // la vérification HMAC et le parsing des claims. Chaque entrée expire avec le token (exp).
+    // Lu à chaque requête authentifiée : map concurrente sans verrou global, borne approximative (voir evict)
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final int verifiedTokenCacheSize;
+    // Un seul thread fait le ménage à la fois ; les autres insèrent sans attendre
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    });
+
+    @Autowired
+    public JwtUtil(JwtKeyRing keyRing, JwtProperties properties, RevokedTokenSet revokedTokens) {
+        this(keyRing, properties.getValidity().toMillis(), DEFAULT_VERIFIED_TOKEN_CACHE_SIZE, revokedTokens);
+    }
+
+    public JwtUtil(JwtKeyRing keyRing, JwtProperties properties) {
+        this(keyRing, properties, new RevokedTokenSet());
+    }
+
+    // Instance isolée avec une clé éphémère
+    public JwtUtil() {
+        this(JwtKeyRing.ephemeral(), 3600000, DEFAULT_VERIFIED_TOKEN_CACHE_SIZE); // 1h
+    }
+
+    JwtUtil(JwtKeyRing keyRing, long validityInMilliseconds, int verifiedTokenCacheSize) {
+        this(keyRing, validityInMilliseconds, verifiedTokenCacheSize, new RevokedTokenSet());
+    }
+
+    JwtUtil(JwtKeyRing keyRing, long validityInMilliseconds, int verifiedTokenCacheSize, RevokedTokenSet revokedTokens) {
+        this.keyRing = keyRing;
+        this.validityInMilliseconds = validityInMilliseconds;
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+        this.revokedTokens = revokedTokens;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyRing.verificationKey(header.getKeyId(), Instant.now());
+                        if (key == null) {
+                            throw new SignatureException("Clé de signature inconnue ou retirée : " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
 
     public String generateToken(String email) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, email);
     }
 
+    // Token portant l'id de l'utilisateur (claim "uid") : le principal est reconstruit sans requête
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        return createToken(claims, user.getEmail());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityInMilliseconds);
+        JwtKeyRing.RingKey signingKey = keyRing.signingKey(now.toInstant());
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getId())
                 .setClaims(claims)
+                // jti : identifiant révocable individuellement (déconnexion)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(validity)
-                .signWith(key)
+                .signWith(signingKey.getKey())
                 .compact();
     }
 
@@ -41,6 +133,23 @@ public class JwtUtil {
         return getClaims(token).getSubject();
     }
 
+    public AuthenticatedUser getAuthenticatedUser(String token) {
+        Claims claims = getClaims(token);
+        return new AuthenticatedUser(claims.get(USER_ID_CLAIM, Long.class), claims.getSubject());
+    }
+
+    public String getTokenId(String token) {
+        return getClaims(token).getId();
+    }
+
+    public Date getExpiration(String token) {
+        return getClaims(token).getExpiration();
+    }
+
+    public long getValidityInMilliseconds() {
+        return validityInMilliseconds;
+    }
+
     public boolean validateToken(String token) {
         try {
             Claims claims = getClaims(token);
@@ -51,17 +160,110 @@ public class JwtUtil {
         }
     }
 
+    // Les claims renvoyées peuvent être partagées entre requêtes : ne pas les modifier
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verifyClaims(token);
+        // Consulté même quand la signature vient du cache : une révocation prend effet immédiatement
+        Date issuedAt = claims.getIssuedAt();
+        if (revokedTokens.isRevoked(claims.getId(), claims.get(USER_ID_CLAIM, Long.class),
+                issuedAt == null ? 0 : issuedAt.getTime() / 1000)) {
+            throw new RevokedTokenException("Token révoqué");
+        }
+        return claims;
+    }
+
+    private Claims verifyClaims(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (isFresh(cached, now)) {
+                cached.lastUsed = System.nanoTime();
+                return cached.claims;
+            }
+            // Entrée périmée : le token a expiré ou sa clé a été retirée du trousseau
+            verifiedTokens.remove(digest, cached);
+        }
+
+        // Vérification complète ; un token expiré lève ExpiredJwtException comme avant
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(digest, new VerifiedToken(claims, jws.getHeader().getKeyId(), expiration.getTime()));
+            if (verifiedTokens.size() > verifiedTokenCacheSize) {
+                evict(now);
+            }
+        }
+        return claims;
+    }
+
+    private boolean isFresh(VerifiedToken token, long now) {
+        return token.expiresAt > now && keyRing.verificationKey(token.keyId, Instant.ofEpochMilli(now)) != null;
+    }
+
+    // Éviction LRU par lots : d'abord les entrées périmées, puis les moins récemment utilisées jusqu'à repasser
+    // sous la borne, avec 10 % de marge. Le tri ne se fait qu'une fois toutes les ~taille/10 insertions et les
+    // lectures ne font qu'écrire lastUsed, sans verrou. Sous forte concurrence la taille peut dépasser
+    // brièvement la borne.
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            verifiedTokens.values().removeIf(token -> !isFresh(token, now));
+            int excess = verifiedTokens.size() - (verifiedTokenCacheSize - verifiedTokenCacheSize / 10);
+            if (excess <= 0) {
+                return;
+            }
+            // lastUsed est copié avant le tri : il peut changer pendant, sous l'effet des lectures
+            List<Map.Entry<String, Long>> byLastUse = verifiedTokens.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().lastUsed))
+                    .sorted(Map.Entry.comparingByValue())
+                    .toList();
+            for (Map.Entry<String, Long> entry : byLastUse.subList(0, Math.min(excess, byLastUse.size()))) {
+                verifiedTokens.remove(entry.getKey());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    int verifiedTokenCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    boolean isVerifiedTokenCached(String token) {
+        return verifiedTokens.containsKey(digest(token));
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final String keyId;
+        private final long expiresAt;
+        // System.nanoTime() du dernier usage, pour l'éviction
+        private volatile long lastUsed = System.nanoTime();
+
+        private VerifiedToken(Claims claims, String keyId, long expiresAt) {
+            this.claims = claims;
+            this.keyId = keyId;
+            this.expiresAt = expiresAt;
+        }
     }
 
     public User getUserFromToken(String token, UserRepository userRepository) {
-        String email = getEmailFromToken(token);
-        return userRepository.findByEmail(email)
+        AuthenticatedUser principal = getAuthenticatedUser(token);
+        Optional<User> user = principal.getId() != null
+                ? userRepository.findById(principal.getId())
+                : userRepository.findByEmail(principal.getEmail());
+        return user
             .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé pour le token"));
     }
 
@@ -71,4 +273,4 @@ public class JwtUtil {
         }
         throw new RuntimeException("Token non trouvé dans le header");
     }
-} 
\ No newline at end of file
+}
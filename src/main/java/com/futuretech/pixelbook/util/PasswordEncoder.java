@@ -1,11 +1,37 @@
 package com.futuretech.pixelbook.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hachage BCrypt au coût configuré, identique sur toutes les instances (valeur à choisir avec
+ * {@link BCryptCostCalibrator}). Les hachages existants, quel que soit leur coût, restent vérifiables
+ * (le coût est lu dans le hachage) ; {@link #upgradeEncoding(String)} signale ceux trop faibles.
+ */
 @Component
 public class PasswordEncoder {
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    public static final int DEFAULT_STRENGTH = 10;
+
+    // $2a$10$... : version puis coût sur deux chiffres
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+
+    public PasswordEncoder() {
+        this(DEFAULT_STRENGTH);
+    }
+
+    @Autowired
+    public PasswordEncoder(@Value("${pixelbook.password-hashing.bcrypt.strength:" + DEFAULT_STRENGTH + "}") int strength) {
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
 
     public String encode(String password) {
         if (password == null) {
@@ -23,4 +49,20 @@ public class PasswordEncoder {
         }
         return encoder.matches(rawPassword, encodedPassword);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Vrai si le hachage a été produit avec un coût inférieur au coût courant : il sera refait à la
+     * prochaine connexion réussie. Un hachage plus coûteux est conservé, pour ne jamais redescendre.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+}
@@ -0,0 +1,10 @@
+package com.futuretech.pixelbook.util;
+
+import io.jsonwebtoken.JwtException;
+
+/** Token à la signature valide mais révoqué (déconnexion, changement de mot de passe). */
+public class RevokedTokenException extends JwtException {
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
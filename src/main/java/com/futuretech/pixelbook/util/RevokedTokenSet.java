@@ -0,0 +1,118 @@
+package com.futuretech.pixelbook.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tokens d'accès révoqués, en mémoire, consultés à chaque requête authentifiée.
+ * <p>
+ * Un filtre de Bloom écarte en quelques nanosecondes les tokens jamais révoqués (le cas général) ;
+ * seuls ses faux positifs passent par l'ensemble exact. Les révocations globales d'un utilisateur
+ * (tokens émis avant une date) sont une simple table id → date. Les écritures, rares, sont sérialisées ;
+ * les lectures ne prennent aucun verrou.
+ */
+@Component
+public class RevokedTokenSet {
+
+    // 2^20 bits (128 Ko) et 5 fonctions de hachage : ~1 % de faux positifs à 100 000 révocations actives
+    private static final int BLOOM_BITS = 1 << 20;
+    private static final int BLOOM_HASHES = 5;
+
+    // jti → expiration du token (ms) ; au-delà, l'entrée est inutile
+    private final Map<String, Long> revokedIds = new ConcurrentHashMap<>();
+    // id utilisateur → tokens émis avant cette date (s) révoqués, et fin d'utilité de la règle (ms)
+    private final Map<Long, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom = new BloomFilter();
+
+    public boolean isRevoked(String jti, Long userId, long issuedAtSeconds) {
+        if (userId != null && !userCutoffs.isEmpty()) {
+            UserCutoff cutoff = userCutoffs.get(userId);
+            if (cutoff != null && issuedAtSeconds < cutoff.notBeforeSeconds) {
+                return true;
+            }
+        }
+        return jti != null && bloom.mightContain(jti) && revokedIds.containsKey(jti);
+    }
+
+    public synchronized void revokeToken(String jti, long expiresAtMillis) {
+        revokedIds.put(jti, expiresAtMillis);
+        bloom.add(jti);
+    }
+
+    /**
+     * Révoque les tokens de l'utilisateur émis avant {@code notBeforeSeconds} (précision de la claim iat : la seconde).
+     */
+    public synchronized void revokeUserTokens(Long userId, long notBeforeSeconds, long expiresAtMillis) {
+        userCutoffs.merge(userId, new UserCutoff(notBeforeSeconds, expiresAtMillis),
+                (current, added) -> added.notBeforeSeconds >= current.notBeforeSeconds ? added : current);
+    }
+
+    /** Oublie les révocations expirées et reconstruit le filtre de Bloom, qui ne sait pas retirer d'élément. */
+    public synchronized void purgeExpired(long nowMillis) {
+        revokedIds.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        userCutoffs.values().removeIf(cutoff -> cutoff.expiresAtMillis <= nowMillis);
+        BloomFilter rebuilt = new BloomFilter();
+        revokedIds.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+    }
+
+    public int size() {
+        return revokedIds.size() + userCutoffs.size();
+    }
+
+    private record UserCutoff(long notBeforeSeconds, long expiresAtMillis) {
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray words = new AtomicLongArray(BLOOM_BITS / 64);
+
+        void add(String value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = index(hash1 + i * hash2);
+                long mask = 1L << (bit & 63);
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = index(hash1 + i * hash2);
+                if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int index(long combined) {
+            return (int) ((combined >>> 1) & (BLOOM_BITS - 1));
+        }
+
+        // FNV-1a 64 bits suivi du mélange final de MurmurHash3
+        private static long hash(String value, long seed) {
+            long h = 0xCBF29CE484222325L ^ seed;
+            // Sur les caractères, sans allocation (les jti sont des UUID ASCII)
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.futuretech.pixelbook.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compartiments à jetons indexés par clé (route + utilisateur ou IP), sans verrou : chaque compartiment
+ * est un état immuable mis à jour par compare-and-set, dans une seule table concurrente.
+ */
+public class TokenBucketStore {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Consomme un jeton du compartiment {@code key} (créé plein s'il n'existe pas), rechargé de
+     * {@code capacity} jetons par {@code refillNanos}.
+     */
+    public Decision tryConsume(String key, int capacity, long refillNanos, long nowNanos) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, nowNanos));
+        return bucket.tryConsume(capacity, refillNanos, nowNanos);
+    }
+
+    /** Supprime les compartiments sans requête depuis {@code maxIdleNanos}. */
+    public int evictIdle(long maxIdleNanos, long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> nowNanos - bucket.state.get().updatedAt > maxIdleNanos);
+        return Math.max(0, before - buckets.size());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        private final AtomicReference<State> state;
+
+        private Bucket(int capacity, long nowNanos) {
+            this.state = new AtomicReference<>(new State(capacity, nowNanos));
+        }
+
+        Decision tryConsume(int capacity, long refillNanos, long nowNanos) {
+            double tokensPerNano = (double) capacity / refillNanos;
+            while (true) {
+                State current = state.get();
+                long elapsed = Math.max(0, nowNanos - current.updatedAt);
+                double available = Math.min(capacity, current.tokens + elapsed * tokensPerNano);
+                boolean allowed = available >= 1;
+                double remaining = allowed ? available - 1 : available;
+                if (state.compareAndSet(current, new State(remaining, Math.max(nowNanos, current.updatedAt)))) {
+                    long untilNextToken = allowed ? 0 : (long) Math.ceil((1 - remaining) / tokensPerNano);
+                    long untilFull = (long) Math.ceil((capacity - remaining) / tokensPerNano);
+                    return new Decision(allowed, capacity, (int) Math.floor(remaining), untilNextToken, untilFull);
+                }
+            }
+        }
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    /** Résultat d'une consommation : de quoi remplir les en-têtes X-RateLimit-* et Retry-After. */
+    public record Decision(boolean allowed, int limit, int remaining, long retryAfterNanos, long resetNanos) {
+    }
+}
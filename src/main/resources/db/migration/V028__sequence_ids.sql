@@ -0,0 +1,35 @@
+-- Passage des colonnes IDENTITY aux séquences (optimiseur pooled, incrément 50).
+-- Script idempotent : rejoué à chaque démarrage après la mise à jour du schéma par Hibernate.
+-- Les séquences ne reculent jamais, pour ne pas chevaucher les blocs d'ids déjà réservés par une autre instance.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+SELECT setval('users_seq', GREATEST((SELECT last_value FROM users_seq), (SELECT COALESCE(MAX(id), 0) FROM users)));
+
+CREATE SEQUENCE IF NOT EXISTS bookshelves_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE bookshelves_seq INCREMENT BY 50;
+ALTER TABLE bookshelves ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookshelves ALTER COLUMN id DROP DEFAULT;
+SELECT setval('bookshelves_seq', GREATEST((SELECT last_value FROM bookshelves_seq), (SELECT COALESCE(MAX(id), 0) FROM bookshelves)));
+
+CREATE SEQUENCE IF NOT EXISTS shop_carts_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE shop_carts_seq INCREMENT BY 50;
+ALTER TABLE shop_carts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE shop_carts ALTER COLUMN id DROP DEFAULT;
+SELECT setval('shop_carts_seq', GREATEST((SELECT last_value FROM shop_carts_seq), (SELECT COALESCE(MAX(id), 0) FROM shop_carts)));
+
+CREATE SEQUENCE IF NOT EXISTS mangas_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE mangas_seq INCREMENT BY 50;
+ALTER TABLE mangas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE mangas ALTER COLUMN id DROP DEFAULT;
+SELECT setval('mangas_seq', GREATEST((SELECT last_value FROM mangas_seq), (SELECT COALESCE(MAX(id), 0) FROM mangas)));
+
+CREATE SEQUENCE IF NOT EXISTS volumes_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE volumes_seq INCREMENT BY 50;
+ALTER TABLE volumes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE volumes ALTER COLUMN id DROP DEFAULT;
+SELECT setval('volumes_seq', GREATEST((SELECT last_value FROM volumes_seq), (SELECT COALESCE(MAX(id), 0) FROM volumes)));
+
+-- contents : voir V031 (id par défaut de colonne, partagé avec les INSERT natifs)
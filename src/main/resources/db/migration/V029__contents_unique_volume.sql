@@ -0,0 +1,10 @@
+-- Un volume n'apparaît qu'une fois par bibliothèque : cible des INSERT ... ON CONFLICT DO NOTHING.
+-- Supprime d'abord les doublons éventuels (on garde la ligne la plus ancienne), puis crée l'index unique.
+
+DELETE FROM contents a
+    USING contents b
+    WHERE a.bookshelf_id = b.bookshelf_id
+      AND a.volume_id = b.volume_id
+      AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_contents_bookshelf_volume ON contents (bookshelf_id, volume_id);
@@ -0,0 +1,10 @@
+-- Un volume n'apparaît qu'une fois par panier : cible des INSERT ... ON CONFLICT DO NOTHING.
+-- Supprime d'abord les doublons éventuels (la table n'a pas d'id, on s'appuie sur ctid), puis crée l'index unique.
+
+DELETE FROM shop_cart_volume a
+    USING shop_cart_volume b
+    WHERE a.shop_cart_id = b.shop_cart_id
+      AND a.volume_id = b.volume_id
+      AND a.ctid > b.ctid;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_shop_cart_volume ON shop_cart_volume (shop_cart_id, volume_id);
@@ -0,0 +1,10 @@
+-- Les contenus sont créés par des INSERT natifs en lot : l'id vient d'un défaut de colonne sur contents_seq,
+-- utilisé aussi par l'entité (IDENTITY), plutôt que de mélanger nextval par ligne et blocs pooled de 50.
+-- Script idempotent ; la séquence ne recule jamais, au-delà des blocs déjà réservés par l'ancien optimiseur.
+
+CREATE SEQUENCE IF NOT EXISTS contents_seq START WITH 1 INCREMENT BY 1;
+ALTER SEQUENCE contents_seq INCREMENT BY 1;
+ALTER TABLE contents ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('contents_seq', GREATEST((SELECT last_value FROM contents_seq), (SELECT COALESCE(MAX(id), 0) FROM contents)));
+ALTER TABLE contents ALTER COLUMN id SET DEFAULT nextval('contents_seq');
+ALTER SEQUENCE contents_seq OWNED BY contents.id;
@@ -0,0 +1,10 @@
+-- Index des pistes propre à chaque nœud : les fichiers sont sur le disque local de l'instance qui les a convertis.
+-- Les entrées antérieures n'ont pas de nœud connu : elles sont oubliées, la piste est reconvertie au même chemin.
+-- Script idempotent, rejoué à chaque démarrage après la mise à jour du schéma par Hibernate.
+
+ALTER TABLE music_tracks ADD COLUMN IF NOT EXISTS node varchar(128);
+ALTER TABLE music_tracks ADD COLUMN IF NOT EXISTS last_accessed_at timestamp(6);
+DELETE FROM music_tracks WHERE node IS NULL;
+ALTER TABLE music_tracks ALTER COLUMN node SET NOT NULL;
+ALTER TABLE music_tracks DROP CONSTRAINT IF EXISTS uk_music_tracks_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_music_tracks_node_key ON music_tracks (node, video_id, format, bitrate);
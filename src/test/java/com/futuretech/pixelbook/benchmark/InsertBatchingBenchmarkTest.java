@@ -0,0 +1,153 @@
+package com.futuretech.pixelbook.benchmark;
+
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import com.futuretech.pixelbook.service.JikanService;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombre de requêtes JDBC (statistiques Hibernate) d'un checkout et d'un import de volumes : vérifie que
+ * les insertions partent en lots. Hors du build par défaut, voir le profil Maven "benchmarks".
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+@Transactional
+public class InsertBatchingBenchmarkTest {
+
+    private static final int ROWS = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private JikanService jikanService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void benchmarkCheckoutStatements() throws Exception {
+        User user = new User();
+        user.setEmail("bench-checkout@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        Bookshelf bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelfRepository.save(bookshelf);
+
+        ShopCart shopCart = new ShopCart();
+        shopCart.setUser(user);
+        shopCart = shopCartRepository.save(shopCart);
+
+        Manga manga = new Manga();
+        manga.setTitle("Bench Manga");
+        manga = mangaRepository.save(manga);
+
+        for (int i = 1; i <= ROWS; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Bench Volume " + i);
+            volume.setNumber(i);
+            volume.setPrice(7.5);
+            volume.setManga(manga);
+            volume = volumeRepository.save(volume);
+            shopCartRepository.addVolumeToCart(shopCart.getId(), volume.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        mockMvc.perform(post("/api/users/{userId}/shopcart/checkout", user.getId()))
+                .andExpect(status().isOk());
+        entityManager.flush();
+
+        // INSERT ... SELECT ensembliste : aucun contenu inséré ligne à ligne, nombre de requêtes indépendant de ROWS
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(ROWS, countContents(bookshelf.getId()));
+    }
+
+    @Test
+    void benchmarkVolumeImportStatements() throws Exception {
+        Manga manga = new Manga();
+        manga.setTitle("Imported Manga");
+        manga.setMalId(424242L);
+
+        List<Volume> volumes = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Imported Volume " + i);
+            volume.setNumber(i);
+            volume.setPrice(7.5);
+            volumes.add(volume);
+        }
+        Mockito.when(jikanService.fetchMangaDetails(424242L)).thenReturn(manga);
+        Mockito.when(jikanService.fetchMangaVolumes(424242L)).thenReturn(volumes);
+
+        statistics.clear();
+        mockMvc.perform(post("/api/jikan/import/{malId}/volumes", 424242L))
+                .andExpect(status().isOk());
+        entityManager.flush();
+
+        // 51 lignes (manga + volumes) en 6 allers-retours : recherche du manga, séquences, insertion du manga,
+        // puis un seul lot JDBC pour les 50 volumes (batch_size=50)
+        assertEquals(ROWS + 1, statistics.getEntityInsertCount());
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(ROWS, volumeRepository.findAll().stream()
+                .filter(v -> v.getTitle().startsWith("Imported Volume"))
+                .count());
+    }
+
+    private long countContents(Long bookshelfId) {
+        return entityManager.createQuery("SELECT COUNT(c) FROM Content c WHERE c.bookshelf.id = :id", Long.class)
+                .setParameter("id", bookshelfId)
+                .getSingleResult();
+    }
+}
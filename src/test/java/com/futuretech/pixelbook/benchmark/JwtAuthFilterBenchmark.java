@@ -0,0 +1,121 @@
+package com.futuretech.pixelbook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.config.JwtAuthFilter;
+import com.futuretech.pixelbook.config.JwtProperties;
+import com.futuretech.pixelbook.util.JwtKeyRing;
+import com.futuretech.pixelbook.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de {@link JwtAuthFilter} selon que le token est déjà vérifié ou non.
+ * Le filtre et son cache sont partagés par plusieurs threads, comme entre les requêtes du serveur.
+ * <p>
+ * Lancement : {@code mvn test-compile} puis exécuter {@link #main(String[])} depuis l'IDE
+ * (ou {@code java -cp target/test-classes:<classpath de test> ...JwtAuthFilterBenchmark}).
+ * Ce n'est pas un test : surefire ne l'exécute pas.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    // Plus de tokens distincts par thread que la taille du cache : chaque appel est un défaut de cache
+    private static final int DISTINCT_TOKENS = 20_000;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filter;
+    private Key key;
+    private String repeatedToken;
+
+    // Tokens propres à chaque thread : un thread ne retombe pas sur les entrées mises en cache par un autre
+    @State(Scope.Thread)
+    public static class DistinctTokens {
+        private String[] tokens;
+        private int next;
+
+        @Setup
+        public void setUp(JwtAuthFilterBenchmark benchmark) {
+            tokens = new String[DISTINCT_TOKENS];
+            for (int i = 0; i < DISTINCT_TOKENS; i++) {
+                tokens[i] = benchmark.jwtUtil.generateToken("bench" + i + "@example.com");
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = JwtKeyRing.ephemeral();
+        key = keyRing.signingKey(Instant.now()).getKey();
+        jwtUtil = new JwtUtil(keyRing, new JwtProperties());
+        filter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+
+        repeatedToken = jwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterRepeatedToken() throws Exception {
+        return filter(repeatedToken);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterUncachedToken(DistinctTokens distinct) throws Exception {
+        String token = distinct.tokens[distinct.next];
+        distinct.next = (distinct.next + 1) % DISTINCT_TOKENS;
+        return filter(token);
+    }
+
+    // Référence : l'ancien getClaims, qui construisait un parseur à chaque appel
+    @Benchmark
+    public String parserPerCall() {
+        return Jwts.parserBuilder().setSigningKey(key).build()
+                .parseClaimsJws(repeatedToken).getBody().getSubject();
+    }
+
+    private MockHttpServletResponse filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.futuretech.pixelbook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.model.User;
+import com.futuretech.pixelbook.repository.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Test de charge de l'inscription : inscriptions concurrentes sur plusieurs threads et cohérence des comptes
+ * créés (chaque utilisateur doit avoir exactement une bibliothèque et un panier).
+ * Hors du build par défaut, voir le profil Maven "benchmarks".
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class RegistrationLoadTest {
+
+    private static final int THREADS = 8;
+    private static final int REGISTRATIONS = 64;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @AfterEach
+    void cleanUp() {
+        shopCartRepository.deleteAll();
+        bookshelfRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void benchmarkRegistrationThroughput() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> statuses = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                User user = new User();
+                user.setEmail("load-" + i + "@example.com");
+                user.setPassword("password-" + i);
+                String body = objectMapper.writeValueAsString(user);
+
+                statuses.add(executor.submit(() -> mockMvc.perform(post("/api/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(201, status.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(REGISTRATIONS, userRepository.count());
+        assertEquals(REGISTRATIONS, bookshelfRepository.count());
+        assertEquals(REGISTRATIONS, shopCartRepository.count());
+    }
+}
@@ -0,0 +1,125 @@
+package com.futuretech.pixelbook.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(
+                route("/api/jikan/**", null, 2, 2),
+                route("/api/music/download", "music-download", 4, 1),
+                route("/api/music/jobs", "music-download", 4, 1)));
+
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testExcessRequestsFromSameIpGet429() throws Exception {
+        assertEquals(200, perform("/api/jikan/search", "10.0.0.1").getStatus());
+        MockHttpServletResponse second = perform("/api/jikan/search", "10.0.0.1");
+        assertEquals("2", second.getHeader(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("0", second.getHeader(RateLimitFilter.REMAINING_HEADER));
+
+        MockHttpServletResponse rejected = perform("/api/jikan/search", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Trop de requêtes"));
+
+        // Autre IP, autre compartiment
+        assertEquals(200, perform("/api/jikan/search", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void testAuthenticatedUserIsLimitedAcrossIps() throws Exception {
+        AuthenticatedUser user = new AuthenticatedUser(42L, "user@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        assertEquals(200, perform("/api/jikan/search", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/jikan/search", "10.0.0.2").getStatus());
+        assertEquals(429, perform("/api/jikan/search", "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void testUnlistedRoutesAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = perform("/api/mangas", "10.0.0.1");
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(RateLimitFilter.LIMIT_HEADER));
+        }
+        assertEquals(0, filter.bucketCount());
+    }
+
+    @Test
+    void testIpAndUserLimitsAreSeparate() throws Exception {
+        authenticate(42L);
+        assertEquals(200, perform("/api/music/download", "10.0.0.1").getStatus());
+        assertEquals(429, perform("/api/music/download", "10.0.0.1").getStatus());
+
+        // Même IP, utilisateur anonyme : seule la limite par IP (4) s'applique
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse anonymous = perform("/api/music/download", "10.0.0.1");
+        assertEquals(200, anonymous.getStatus());
+        assertEquals("4", anonymous.getHeader(RateLimitFilter.LIMIT_HEADER));
+    }
+
+    @Test
+    void testRoutesWithSameKeyShareBuckets() throws Exception {
+        authenticate(42L);
+        assertEquals(200, perform("/api/music/download", "10.0.0.1").getStatus());
+        // Soumettre un job n'ouvre pas un second budget de téléchargement
+        assertEquals(429, perform("/api/music/jobs", "10.0.0.2").getStatus());
+        // Deux compartiments IP et un seul compartiment utilisateur
+        assertEquals(3, filter.bucketCount());
+    }
+
+    private static RateLimitProperties.Route route(String pattern, String key, int ipCapacity, int userCapacity) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern(pattern);
+        route.setKey(key);
+        route.getIp().setCapacity(ipCapacity);
+        route.getIp().setRefillPeriod(Duration.ofMinutes(1));
+        route.getUser().setCapacity(userCapacity);
+        route.getUser().setRefillPeriod(Duration.ofMinutes(1));
+        return route;
+    }
+
+    private static void authenticate(Long userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    private MockHttpServletResponse perform(String path, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
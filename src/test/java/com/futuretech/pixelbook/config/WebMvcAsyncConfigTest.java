@@ -0,0 +1,34 @@
+package com.futuretech.pixelbook.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WebMvcAsyncConfigTest {
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private WebMvcAsyncConfig webMvcAsyncConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testStreamingResponsesUseDedicatedExecutor() {
+        // Et non l'exécuteur @Async partagé avec les suppressions de compte
+        assertSame(webMvcAsyncConfig.getExecutor(), ReflectionTestUtils.getField(handlerAdapter, "taskExecutor"));
+        assertEquals(600_000L, ReflectionTestUtils.getField(handlerAdapter, "asyncRequestTimeout"));
+        assertEquals(16, webMvcAsyncConfig.getExecutor().getQueueCapacity());
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "mvcAsync").gauge());
+    }
+}
@@ -0,0 +1,187 @@
+package com.futuretech.pixelbook.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import com.futuretech.pixelbook.support.TestDataCleaner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Opérations concurrentes sur un même panier. Pas de @Transactional : chaque requête
+ * doit valider sa propre transaction pour que les accès concurrents soient réels.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class ConcurrentCartOperationsTest {
+
+    private static final int THREADS = 8;
+    private static final int CART_SIZE = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    private User user;
+    private Bookshelf bookshelf;
+    private ShopCart shopCart;
+    private List<Volume> volumes;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        user = new User();
+        user.setEmail("concurrent@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        shopCart = new ShopCart();
+        shopCart.setUser(user);
+        shopCart = shopCartRepository.save(shopCart);
+
+        Manga manga = new Manga();
+        manga.setTitle("Concurrent Manga");
+        manga = mangaRepository.save(manga);
+
+        volumes = new ArrayList<>();
+        for (int i = 1; i <= CART_SIZE; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Concurrent Volume " + i);
+            volume.setNumber(i);
+            volume.setPrice(6.5);
+            volume.setManga(manga);
+            volumes.add(volumeRepository.save(volume));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        testDataCleaner.deleteAll();
+    }
+
+    @Test
+    void testConcurrentCheckoutsMoveEachVolumeOnce() throws Exception {
+        volumes.forEach(volume -> shopCartRepository.addVolumeToCart(shopCart.getId(), volume.getId()));
+
+        List<MvcResult> results = runConcurrently(() ->
+                mockMvc.perform(post("/api/users/{userId}/shopcart/checkout", user.getId())).andReturn());
+
+        int totalAdded = 0;
+        int successfulCheckouts = 0;
+        for (MvcResult result : results) {
+            int status = result.getResponse().getStatus();
+            assertTrue(status == 200 || status == 400, "Statut inattendu: " + status);
+            if (status == 200) {
+                successfulCheckouts++;
+                JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+                totalAdded += body.get("addedVolumes").asInt();
+            }
+        }
+
+        assertEquals(1, successfulCheckouts);
+        assertEquals(CART_SIZE, totalAdded);
+        assertEquals(CART_SIZE, contentRepository.findByBookshelfId(bookshelf.getId()).size());
+    }
+
+    @Test
+    void testConcurrentCartAddsCreateASingleLine() throws Exception {
+        Long volumeId = volumes.get(0).getId();
+
+        List<Integer> statuses = runConcurrently(() ->
+                mockMvc.perform(post("/api/users/{userId}/shopcart/volume/{volumeId}", user.getId(), volumeId)
+                        .param("fetchMode", "basic"))
+                        .andReturn().getResponse().getStatus());
+
+        assertEquals(1, statuses.stream().filter(status -> status == 201).count());
+        assertEquals(THREADS - 1, statuses.stream().filter(status -> status == 409).count());
+    }
+
+    @Test
+    void testConcurrentBookshelfAddsCreateASingleContent() throws Exception {
+        Long volumeId = volumes.get(0).getId();
+
+        List<Integer> statuses = runConcurrently(() ->
+                mockMvc.perform(post("/api/contents/bookshelf/{bookshelfId}/volume/{volumeId}", bookshelf.getId(), volumeId))
+                        .andReturn().getResponse().getStatus());
+
+        assertEquals(1, statuses.stream().filter(status -> status == 201).count());
+        assertEquals(THREADS - 1, statuses.stream().filter(status -> status == 409).count());
+        assertEquals(1, contentRepository.findByBookshelfId(bookshelf.getId()).size());
+    }
+
+    // Lance la même tâche sur plusieurs threads démarrés en même temps
+    private <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.futuretech.pixelbook.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.dto.ContentReadStateDTO;
+import com.futuretech.pixelbook.event.ReadStatusChangedEvent;
 import com.futuretech.pixelbook.model.Bookshelf;
 import com.futuretech.pixelbook.model.Content;
 import com.futuretech.pixelbook.model.User;
@@ -20,6 +22,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
@@ -30,7 +34,9 @@ import java.util.HashMap;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,11 +44,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
+@RecordApplicationEvents
 public class ContentControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     @MockBean
     private ContentRepository contentRepository;
 
@@ -145,9 +155,10 @@ public class ContentControllerTest {
         when(volumeRepository.save(any(Volume.class))).thenReturn(newVolume);
         when(volumeRepository.findById(2L)).thenReturn(Optional.of(newVolume));
         
-        // Mock pour éviter le conflit (pas de contenu existant)
+        // L'insertion crée une ligne, puis le contenu créé est relu
+        when(contentRepository.addVolumeToBookshelf(1L, 2L)).thenReturn(1);
         when(contentRepository.findByBookshelfIdAndVolumeId(1L, 2L))
-            .thenReturn(Optional.empty());
+            .thenReturn(Optional.of(testContent));
 
         mockMvc.perform(post("/api/contents/bookshelf/1/volume/2")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -155,6 +166,15 @@ public class ContentControllerTest {
                 .andExpect(jsonPath("$.id").exists());
     }
 
+    @Test
+    void testAddVolumeToBookshelfConflict() throws Exception {
+        // Aucune ligne insérée : le volume est déjà dans la bibliothèque
+        when(contentRepository.addVolumeToBookshelf(1L, 1L)).thenReturn(0);
+
+        mockMvc.perform(post("/api/contents/bookshelf/1/volume/1"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testAddVolumeToBookshelfBadRequest() throws Exception {
         mockMvc.perform(post("/api/contents/bookshelf/999999/volume/{volumeId}", testVolume.getId()))
@@ -208,10 +228,27 @@ public class ContentControllerTest {
 
     @Test
     void testUpdateReadStatus() throws Exception {
+        when(contentRepository.bulkUpdateReadStatus(eq(1L), eq(List.of(1L)), eq(true), any())).thenReturn(1);
+
         mockMvc.perform(put("/api/contents/bookshelf/1/volume/1/read/true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.read").value(true));
+
+        assertEquals(1, applicationEvents.stream(ReadStatusChangedEvent.class).count());
+    }
+
+    @Test
+    void testUpdateReadStatusUnchangedPublishesNoEvent() throws Exception {
+        // Déjà non lu : l'UPDATE conditionnel ne modifie aucune ligne
+        when(contentRepository.bulkUpdateReadStatus(eq(1L), eq(List.of(1L)), eq(false), any())).thenReturn(0);
+
+        mockMvc.perform(put("/api/contents/bookshelf/1/volume/1/read/false")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(false));
+
+        assertEquals(0, applicationEvents.stream(ReadStatusChangedEvent.class).count());
     }
 
     @Test
@@ -252,4 +289,34 @@ public class ContentControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testUpdateReadStatusInBulk() throws Exception {
+        when(bookshelfRepository.existsById(1L)).thenReturn(true);
+        when(contentRepository.findReadStatesByVolumeIds(any(), any()))
+                .thenReturn(List.of(new ContentReadStateDTO(1L, false)));
+
+        mockMvc.perform(put("/api/contents/bookshelf/1/read/true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"volumeIds\": [1, 2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.notInBookshelf", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$.results[1].status", is("NOT_IN_BOOKSHELF")));
+    }
+
+    @Test
+    void testUpdateReadStatusInBulkInvalidRequest() throws Exception {
+        when(bookshelfRepository.existsById(1L)).thenReturn(true);
+
+        mockMvc.perform(put("/api/contents/bookshelf/1/read/true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/contents/bookshelf/999/read/true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mangaId\": 1}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,217 @@
+package com.futuretech.pixelbook.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import com.futuretech.pixelbook.support.TestDataCleaner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Les associations sont LAZY et open-in-view est désactivé : chaque endpoint qui sérialise des entités
+ * doit charger ce qu'il renvoie avant la fin de sa transaction. Pas de @Transactional ici, sinon la
+ * session du test resterait ouverte pendant la sérialisation et masquerait les proxys non initialisés.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class LazyAssociationSerializationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    private User user;
+    private Bookshelf bookshelf;
+    private ShopCart shopCart;
+    private Manga manga;
+    private Volume volume;
+    private Volume otherVolume;
+    private Content content;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        user = new User();
+        user.setEmail("lazy@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        shopCart = new ShopCart();
+        shopCart.setUser(user);
+        shopCart = shopCartRepository.save(shopCart);
+
+        manga = new Manga();
+        manga.setTitle("Lazy Manga");
+        manga = mangaRepository.save(manga);
+
+        volume = createVolume(1);
+        otherVolume = createVolume(2);
+
+        contentRepository.addVolumeToBookshelf(bookshelf.getId(), volume.getId());
+        content = contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volume.getId()).orElseThrow();
+        shopCartRepository.addVolumeToCart(shopCart.getId(), volume.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        testDataCleaner.deleteAll();
+    }
+
+    @Test
+    void testVolumeEndpointsSerializeManga() throws Exception {
+        // Deux passages : le second est servi par le cache de second niveau
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/volumes/{id}", volume.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.manga.title", is("Lazy Manga")));
+            mockMvc.perform(get("/api/volumes/manga/{mangaId}", manga.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].manga.title", everyItem(is("Lazy Manga"))));
+        }
+        mockMvc.perform(get("/api/volumes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].manga.title", everyItem(is("Lazy Manga"))));
+
+        Volume update = new Volume();
+        update.setTitle("Renamed Volume");
+        update.setNumber(1);
+        update.setManga(manga);
+        mockMvc.perform(put("/api/volumes/{id}", volume.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Renamed Volume")))
+                .andExpect(jsonPath("$.manga.title", is("Lazy Manga")));
+
+        // La mise à jour ne touche ni aux lignes de panier ni aux contenus du volume
+        mockMvc.perform(get("/api/shopcarts/{id}", shopCart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.volumes[0].title", is("Renamed Volume")));
+        mockMvc.perform(get("/api/contents/bookshelf/{bookshelfId}", bookshelf.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void testContentEndpointsSerializeVolumeAndManga() throws Exception {
+        mockMvc.perform(get("/api/contents"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(get("/api/contents/{id}", content.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(get("/api/contents/bookshelf/{bookshelfId}", bookshelf.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(put("/api/contents/bookshelf/{bookshelfId}/volume/{volumeId}/read/true",
+                bookshelf.getId(), volume.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(true)))
+                .andExpect(jsonPath("$.volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(post("/api/contents/bookshelf/{bookshelfId}/volume/{volumeId}",
+                bookshelf.getId(), otherVolume.getId()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.volume.manga.title", is("Lazy Manga")));
+    }
+
+    @Test
+    void testBookshelfEndpointsSerializeContents() throws Exception {
+        mockMvc.perform(get("/api/bookshelves"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].contents[0].volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(get("/api/bookshelves/{id}", bookshelf.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contents", hasSize(1)))
+                .andExpect(jsonPath("$.contents[0].volume.manga.title", is("Lazy Manga")));
+        mockMvc.perform(post("/api/users/{userId}/bookshelf/volume/{volumeId}", user.getId(), otherVolume.getId()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.volume.manga.title", is("Lazy Manga")));
+    }
+
+    @Test
+    void testShopCartEndpointsSerializeVolumes() throws Exception {
+        mockMvc.perform(get("/api/shopcarts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].volumes[0].manga.title", is("Lazy Manga")));
+        mockMvc.perform(get("/api/shopcarts/{id}", shopCart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.volumes", hasSize(1)));
+        mockMvc.perform(post("/api/shopcarts/{id}/volume/{volumeId}", shopCart.getId(), otherVolume.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.volumes", hasSize(2)))
+                .andExpect(jsonPath("$.volumes[*].manga.title", everyItem(is("Lazy Manga"))));
+        mockMvc.perform(delete("/api/shopcarts/{id}/volume/{volumeId}", shopCart.getId(), otherVolume.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.volumes", hasSize(1)));
+        mockMvc.perform(post("/api/users/{userId}/shopcart/volume/{volumeId}", user.getId(), otherVolume.getId()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.volumes", hasSize(2)));
+    }
+
+    @Test
+    void testUserEndpointsSerialize() throws Exception {
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", is("lazy@example.com")));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("lazy@example.com")));
+        mockMvc.perform(get("/api/mangas/{id}", manga.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Lazy Manga")));
+    }
+
+    private Volume createVolume(int number) {
+        Volume newVolume = new Volume();
+        newVolume.setTitle("Lazy Volume " + number);
+        newVolume.setNumber(number);
+        newVolume.setPrice(8.0);
+        newVolume.setManga(manga);
+        return volumeRepository.save(newVolume);
+    }
+}
@@ -0,0 +1,233 @@
+package com.futuretech.pixelbook.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.service.MusicDownloader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class MusicControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Pas de yt-dlp/FFmpeg en test : le téléchargeur écrit un faux mp3
+    @MockBean
+    private MusicDownloader musicDownloader;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Mockito.when(musicDownloader.download(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(3).run();
+            return Files.writeString(tempDir.resolve("track_" + invocation.getArgument(1) + ".mp3"), "fake-mp3").toFile();
+        });
+    }
+
+    @Test
+    public void testSubmitJobThenFetchFile() throws Exception {
+        MvcResult submitted = mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://www.youtube.com/watch?v=abc123\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/api/music/jobs/")))
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn();
+        String id = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode status = waitForPhase(id, "DONE");
+        assertEquals("/api/music/jobs/" + id + "/file", status.get("fileUrl").asText());
+
+        mockMvc.perform(get("/api/music/jobs/" + id + "/file"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "audio/mpeg"))
+                .andExpect(header().string("Content-Disposition", containsString("track_abc123_")))
+                .andExpect(content().string("fake-mp3"));
+    }
+
+    @Test
+    public void testRepeatedTrackIsServedFromStore() throws Exception {
+        MvcResult submitted = mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://youtu.be/cache42\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+        waitForPhase(id, "DONE");
+
+        // Même vidéo, même profil : job terminé d'emblée, sans nouveau téléchargement
+        mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://www.youtube.com/watch?v=cache42\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.phase").value("DONE"))
+                .andExpect(jsonPath("$.fileUrl").exists());
+        MvcResult started = mockMvc.perform(post("/api/music/download")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://youtu.be/cache42\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("track_cache42_128k.mp3")))
+                .andExpect(content().string("fake-mp3"));
+
+        Mockito.verify(musicDownloader, Mockito.times(1)).download(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testJobFileSupportsRangeAndConditionalRequests() throws Exception {
+        MvcResult submitted = mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://www.youtube.com/watch?v=range1\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+        waitForPhase(id, "DONE");
+        String fileUrl = "/api/music/jobs/" + id + "/file";
+
+        MvcResult full = mockMvc.perform(get(fileUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Length", "8"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = full.getResponse().getHeader("ETag");
+        String lastModified = full.getResponse().getHeader("Last-Modified");
+
+        // Reprise : seule la plage demandée est renvoyée
+        mockMvc.perform(get(fileUrl).header("Range", "bytes=5-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-7/8"))
+                .andExpect(content().string("mp3"));
+        mockMvc.perform(get(fileUrl).header("Range", "bytes=0-3").header("If-Range", etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("fake"));
+        mockMvc.perform(get(fileUrl).header("Range", "bytes=0-3").header("If-Range", lastModified))
+                .andExpect(status().isPartialContent());
+        mockMvc.perform(get(fileUrl).header("Range", "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        // If-Range périmé : fichier complet
+        mockMvc.perform(get(fileUrl).header("Range", "bytes=0-3").header("If-Range", "\"autre-version\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", "8"))
+                .andExpect(content().string("fake-mp3"));
+
+        mockMvc.perform(get(fileUrl).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(fileUrl).header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testUnknownAndUnfinishedJobs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Files.writeString(tempDir.resolve("track_slow.mp3"), "fake-mp3").toFile();
+        }).when(musicDownloader).download(anyString(), anyString(), anyString(), any());
+
+        mockMvc.perform(get("/api/music/jobs/inconnu"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        MvcResult submitted = mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://example.com/slow\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        try {
+            mockMvc.perform(get("/api/music/jobs/" + id + "/file"))
+                    .andExpect(status().isConflict());
+        } finally {
+            release.countDown();
+        }
+        waitForPhase(id, "DONE");
+    }
+
+    @Test
+    public void testLegacyDownloadIsServedAsynchronously() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/music/download")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://youtu.be/xyz789\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("track_xyz789_")))
+                .andExpect(content().string("fake-mp3"));
+    }
+
+    @Test
+    public void testFailedJobReportsError() throws Exception {
+        Mockito.doThrow(new IllegalStateException("yt-dlp non trouvé"))
+                .when(musicDownloader).download(anyString(), anyString(), anyString(), any());
+
+        MvcResult submitted = mockMvc.perform(post("/api/music/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://example.com/track\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode status = waitForPhase(id, "FAILED");
+        assertEquals("yt-dlp non trouvé", status.get("error").asText());
+        mockMvc.perform(get("/api/music/jobs/" + id + "/file"))
+                .andExpect(status().isConflict());
+    }
+
+    private JsonNode waitForPhase(String id, String phase) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/api/music/jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode status = objectMapper.readTree(result.getResponse().getContentAsString());
+            if (phase.equals(status.get("phase").asText())) {
+                return status;
+            }
+            assertTrue(System.currentTimeMillis() < deadline,
+                    "Phase " + phase + " jamais atteinte, dernière phase: " + status.get("phase").asText());
+            Thread.sleep(20);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Date;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -111,6 +112,35 @@ public class SecurityControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testTokenIsRejectedAfterAccountDeletion() throws Exception {
+        User user = new User();
+        user.setEmail("deleted@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setEmail("deleted@example.com");
+        loginDTO.setPassword("password123");
+        MvcResult loginResult = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+        // La claim iat est à la seconde : la révocation ne vise que les tokens des secondes précédentes
+        Thread.sleep(1100);
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId())
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void testProtectedEndpointWithInvalidToken() throws Exception {
         mockMvc.perform(get("/api/users")
@@ -12,6 +12,7 @@ import com.futuretech.pixelbook.repository.UserRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
 import com.futuretech.pixelbook.service.JikanService;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -28,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -57,6 +59,9 @@ public class ShopCartControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @MockBean
     private JikanService jikanService;
 
@@ -191,11 +196,10 @@ public class ShopCartControllerTest {
 
     @Test
     void testAddVolumeToCartConflict() throws Exception {
-        // Le volume est déjà dans le panier, mais le contrôleur semble renvoyer 200 OK
-        // au lieu de 409 Conflict, donc adaptons le test
+        // Le volume est déjà dans le panier
         mockMvc.perform(post("/api/shopcarts/{shopCartId}/volume/{volumeId}", 
                 testShopCart.getId(), testVolume.getId()))
-                .andExpect(status().isOk());
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -206,10 +210,7 @@ public class ShopCartControllerTest {
 
     @Test
     void testRemoveVolumeFromCart() throws Exception {
-        // Ajouter d'abord le volume
-        testShopCart.getVolumes().add(testVolume);
-        shopCartRepository.save(testShopCart);
-
+        // Le volume a été ajouté au panier dans setUp
         mockMvc.perform(delete("/api/shopcarts/{shopCartId}/volume/{volumeId}", 
                 testShopCart.getId(), testVolume.getId()))
                 .andExpect(status().isOk())
@@ -218,11 +219,82 @@ public class ShopCartControllerTest {
 
     @Test
     void testRemoveVolumeFromCartNotFound() throws Exception {
+        // Vider le panier rempli dans setUp : le volume n'y est plus
+        shopCartRepository.detachVolumesFromCart(testShopCart.getId());
+
         mockMvc.perform(delete("/api/shopcarts/{shopCartId}/volume/{volumeId}", 
                 testShopCart.getId(), testVolume.getId()))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetShopCartExposesLineItems() throws Exception {
+        // Le panier de setUp est géré par la transaction du test : on le détache pour relire ses lignes
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/shopcarts/{id}", testShopCart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].volumeId", is(testVolume.getId().intValue())))
+                .andExpect(jsonPath("$.items[0].quantity", is(1)))
+                .andExpect(jsonPath("$.items[0].addedAt", notNullValue()))
+                .andExpect(jsonPath("$.volumes[0].title", is("Test Volume")));
+    }
+
+    @Test
+    void testUpdateVolumeQuantity() throws Exception {
+        mockMvc.perform(put("/api/shopcarts/{shopCartId}/volume/{volumeId}/quantity/{quantity}",
+                testShopCart.getId(), testVolume.getId(), 3))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity", is(3)));
+
+        // Les totaux calculés en base tiennent compte de la quantité
+        mockMvc.perform(get("/api/users/{userId}/shopcart", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(3)))
+                .andExpect(jsonPath("$.totalPrice", closeTo(29.97, 0.001)))
+                .andExpect(jsonPath("$.volumes[0].quantity", is(3)));
+    }
+
+    @Test
+    void testUpdateVolumeQuantityInvalid() throws Exception {
+        mockMvc.perform(put("/api/shopcarts/{shopCartId}/volume/{volumeId}/quantity/{quantity}",
+                testShopCart.getId(), testVolume.getId(), 0))
+                .andExpect(status().isBadRequest());
+
+        shopCartRepository.detachVolumesFromCart(testShopCart.getId());
+        mockMvc.perform(put("/api/shopcarts/{shopCartId}/volume/{volumeId}/quantity/{quantity}",
+                testShopCart.getId(), testVolume.getId(), 2))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAddVolumesToCartInBulk() throws Exception {
+        Volume secondVolume = new Volume();
+        secondVolume.setTitle("Second Volume");
+        secondVolume.setNumber(2);
+        secondVolume.setManga(testManga);
+        secondVolume = volumeRepository.save(secondVolume);
+
+        mockMvc.perform(post("/api/shopcarts/{shopCartId}/volumes", testShopCart.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        Map.of("volumeIds", List.of(testVolume.getId(), secondVolume.getId())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added", is(1)))
+                .andExpect(jsonPath("$.alreadyPresent", is(1)))
+                .andExpect(jsonPath("$.results[1].volumeId", is(secondVolume.getId().intValue())))
+                .andExpect(jsonPath("$.results[1].status", is("ADDED")));
+    }
+
+    @Test
+    void testAddVolumesToCartInBulkBadRequest() throws Exception {
+        mockMvc.perform(post("/api/shopcarts/999999/volumes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"volumeIds\": [1]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testAddVolumeToCartByMalId() throws Exception {
         // Configurer le mock pour JikanService
@@ -240,6 +312,6 @@ public class ShopCartControllerTest {
         mockMvc.perform(post("/api/shopcarts/{shopCartId}/mal/volume/{malId}/{volumeNumber}", 
                 testShopCart.getId(), 12345L, 2))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.volumes", hasSize(1)));
+                .andExpect(jsonPath("$.volumes", hasSize(2)));
     }
 } 
\ No newline at end of file
@@ -5,9 +5,15 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.futuretech.pixelbook.model.*;
 import com.futuretech.pixelbook.repository.*;
 import com.futuretech.pixelbook.service.JikanService;
+import com.futuretech.pixelbook.util.JwtKeyRing;
+import com.futuretech.pixelbook.util.JwtUtil;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
 import com.futuretech.pixelbook.util.PasswordEncoder;
 
 import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,16 +21,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import com.futuretech.pixelbook.dto.LoginDTO;
+import com.futuretech.pixelbook.dto.RefreshTokenRequestDTO;
+import com.futuretech.pixelbook.service.AuthTokenService;
+import com.futuretech.pixelbook.util.RevokedTokenException;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -68,6 +87,18 @@ public class UserControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
     private User testUser;
     private Bookshelf testBookshelf;
     private ShopCart testShopCart;
@@ -158,6 +189,59 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.shopCart").doesNotExist()); // Vérifier que shopCart n'est pas inclus
     }
 
+    @Test
+    void testBasicUserReadsDoNotQueryBookshelfOrShopCart() throws Exception {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        String token = jwtUtil.generateToken(testUser.getEmail());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/users").param("fetchMode", "basic"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+        mockMvc.perform(get("/api/users/{id}", testUser.getId()).param("fetchMode", "basic"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.skinId").hasJsonPath())
+                .andExpect(jsonPath("$.password").doesNotExist());
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(testUser.getId().intValue())))
+                .andExpect(jsonPath("$.email", is(testUser.getEmail())));
+
+        // Une requête par appel, sur users uniquement : aucune entité (donc aucune association) chargée
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        for (String query : statistics.getQueries()) {
+            assertFalse(query.contains("Bookshelf") || query.contains("ShopCart"), query);
+        }
+    }
+
+    @Test
+    void testCurrentUserProfileIsCachedUntilUserChanges() throws Exception {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        String token = jwtUtil.generateToken(testUser);
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(testUser.getId().intValue())));
+
+        // Id lu dans le claim "uid", profil servi par le cache : aucune requête
+        statistics.clear();
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(testUser.getEmail())));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // La modification du skin invalide le profil en cache
+        mockMvc.perform(put("/api/users/{id}/skin/{skinId}", testUser.getId(), 7L))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.skinId", is(7)));
+    }
+
     @Test
     void testGetUserByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/users/999999"))
@@ -175,6 +259,11 @@ public class UserControllerTest {
                 .content(objectMapper.writeValueAsString(newUser)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.email", is("new@example.com")));
+
+        // La bibliothèque et le panier sont créés dans la même transaction que l'utilisateur
+        Long newUserId = userRepository.findByEmail("new@example.com").orElseThrow().getId();
+        assertTrue(bookshelfRepository.findIdByUserId(newUserId).isPresent());
+        assertTrue(shopCartRepository.findIdByUserId(newUserId).isPresent());
     }
 
     @Test
@@ -285,6 +374,15 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id").exists());
     }
 
+    @Test
+    void testAddVolumeToUserShopCartConflict() throws Exception {
+        // Le volume de test est déjà dans le panier
+        mockMvc.perform(post("/api/users/{userId}/shopcart/volume/{volumeId}", 
+                testUser.getId(), testVolume.getId())
+                .param("fetchMode", "basic"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void testCheckoutShopCart() throws Exception {
@@ -304,6 +402,42 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.contents[0].volume.id", is(testVolume.getId().intValue())));
     }
 
+    @Test
+    void testCheckoutShopCartSkipsVolumesAlreadyInBookshelf() throws Exception {
+        Volume secondVolume = new Volume();
+        secondVolume.setTitle("Second Volume");
+        secondVolume.setNumber(2);
+        secondVolume.setPrice(5.0);
+        secondVolume.setManga(testManga);
+        secondVolume = volumeRepository.save(secondVolume);
+        shopCartRepository.addVolumeToCart(testShopCart.getId(), secondVolume.getId());
+
+        // Le premier volume du panier est déjà dans la bibliothèque
+        Content content = new Content();
+        content.setBookshelf(testBookshelf);
+        content.setVolume(testVolume);
+        content.setAddedAt(new Date());
+        contentRepository.save(content);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(post("/api/users/{userId}/shopcart/checkout", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addedVolumes", is(1)));
+
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contents", hasSize(2)));
+    }
+
+    @Test
+    void testCheckoutEmptyShopCart() throws Exception {
+        shopCartRepository.detachVolumesFromCart(testShopCart.getId());
+
+        mockMvc.perform(post("/api/users/{userId}/shopcart/checkout", testUser.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetUserShopCart() throws Exception {
         mockMvc.perform(get("/api/users/{userId}/shopcart", testUser.getId()))
@@ -312,6 +446,44 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.volumes[0].id", is(testVolume.getId().intValue())));
     }
 
+    @Test
+    void testGetUserShopCartTotalsAreComputedInDatabase() throws Exception {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        Volume secondVolume = new Volume();
+        secondVolume.setTitle("Second Volume");
+        secondVolume.setNumber(2);
+        secondVolume.setPrice(5.5);
+        secondVolume.setManga(testManga);
+        secondVolume = volumeRepository.save(secondVolume);
+        shopCartRepository.addVolumeToCart(testShopCart.getId(), secondVolume.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        double expectedTotal = testVolume.getPrice() + 5.5;
+
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{userId}/shopcart", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(2)))
+                .andExpect(jsonPath("$.totalPrice", is(expectedTotal)))
+                .andExpect(jsonPath("$.volumes", hasSize(2)))
+                .andExpect(jsonPath("$.volumes[1].mangaTitle", is(testManga.getTitle())));
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Mode résumé pour le badge : identifiant du panier puis agrégat, aucune ligne renvoyée
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{userId}/shopcart", testUser.getId())
+                .param("summary", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(2)))
+                .andExpect(jsonPath("$.totalPrice", is(expectedTotal)))
+                .andExpect(jsonPath("$.volumes").doesNotExist());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
     @Test
     void testGetUserShopCartNotFound() throws Exception {
         mockMvc.perform(get("/api/users/999999/shopcart"))
@@ -325,12 +497,228 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id", is(testBookshelf.getId().intValue())));
     }
 
+    @Test
+    void testGetUserBookshelfWithoutPagingKeepsLegacyResponse() throws Exception {
+        addVolumesToBookshelf(60);
+
+        // Aucun paramètre : toute la bibliothèque (pas de troncature à 50), volumes complets avec leur manga
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(60)))
+                .andExpect(jsonPath("$.contents", hasSize(60)))
+                .andExpect(jsonPath("$.page").doesNotExist())
+                .andExpect(jsonPath("$.contents[0].volume.price", is(9.99)))
+                .andExpect(jsonPath("$.contents[0].volume.manga.title", is("Test Manga")))
+                .andExpect(jsonPath("$.contents[0].volume.mangaTitle").doesNotExist())
+                .andExpect(jsonPath("$.contents[0].read").doesNotExist());
+    }
+
+    @Test
+    void testGetUserBookshelfPagedAndSortedByTitle() throws Exception {
+        addVolumesToBookshelf(3);
+
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId())
+                .param("page", "0")
+                .param("size", "2")
+                .param("sort", "title")
+                .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(3)))
+                .andExpect(jsonPath("$.totalPages", is(2)))
+                .andExpect(jsonPath("$.contents", hasSize(2)))
+                .andExpect(jsonPath("$.contents[0].volume.title", is("Volume 4")))
+                .andExpect(jsonPath("$.contents[0].volume.mangaTitle", is("Test Manga")))
+                .andExpect(jsonPath("$.contents[1].volume.title", is("Volume 3")));
+    }
+
+    @Test
+    void testGetUserBookshelfInvalidSort() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId())
+                .param("sort", "price"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetUserBookshelfStatementCountIsConstant() throws Exception {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        addVolumesToBookshelf(2);
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId())
+                .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contents", hasSize(2)));
+        long statementsForSmallShelf = statistics.getPrepareStatementCount();
+
+        addVolumesToBookshelf(40);
+        statistics.clear();
+        mockMvc.perform(get("/api/users/{userId}/bookshelf", testUser.getId())
+                .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contents", hasSize(42)));
+
+        assertEquals(statementsForSmallShelf, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // Ajoute des volumes à la bibliothèque de test puis vide le contexte de persistance
+    private void addVolumesToBookshelf(int count) {
+        int offset = (int) volumeRepository.count();
+        for (int i = 1; i <= count; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Volume " + (offset + i));
+            volume.setNumber(offset + i);
+            volume.setPrice(9.99);
+            volume.setManga(testManga);
+            volume = volumeRepository.save(volume);
+
+            Content content = new Content();
+            content.setBookshelf(testBookshelf);
+            content.setVolume(volume);
+            content.setAddedAt(new Date());
+            contentRepository.save(content);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     @Test
     void testGetUserBookshelfNotFound() throws Exception {
         mockMvc.perform(get("/api/users/999999/bookshelf"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testExportUserBookshelfAsCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/{userId}/bookshelf/export", testUser.getId())
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"bookshelf-" + testUser.getId() + ".csv\""))
+                .andExpect(content().string(startsWith("contentId,addedAt,read")));
+    }
+
+    @Test
+    void testExportUserBookshelfInvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}/bookshelf/export", testUser.getId())
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportUserBookshelfNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/999999/bookshelf/export"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testImportUserBookshelfFromCsv() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "bookshelf.csv", "text/csv",
+                ("volumeId,read\n" + testVolume.getId() + ",true\n999999,false\n").getBytes());
+
+        mockMvc.perform(multipart("/api/users/{userId}/bookshelf/import", testUser.getId()).file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows", is(2)))
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errorCount", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)))
+                .andExpect(jsonPath("$.errors[0].message", is("Volume introuvable")));
+
+        assertTrue(contentRepository.existsByBookshelfIdAndVolumeId(testBookshelf.getId(), testVolume.getId()));
+    }
+
+    @Test
+    void testImportUserBookshelfInvalidFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "bookshelf.csv", "text/csv", "title\nfoo\n".getBytes());
+
+        mockMvc.perform(multipart("/api/users/{userId}/bookshelf/import", testUser.getId()).file(file))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(multipart("/api/users/{userId}/bookshelf/import", testUser.getId()).file(file)
+                .param("format", "json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAddVolumesToUserCartInBulk() throws Exception {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        List<Long> volumeIds = createSeries(30);
+        volumeIds.add(testVolume.getId());  // déjà dans le panier (setUp)
+        volumeIds.add(999999L);
+
+        statistics.clear();
+        mockMvc.perform(post("/api/users/{userId}/shopcart/volumes", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("volumeIds", volumeIds))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added", is(30)))
+                .andExpect(jsonPath("$.alreadyPresent", is(1)))
+                .andExpect(jsonPath("$.notFound", is(1)))
+                .andExpect(jsonPath("$.results", hasSize(32)))
+                .andExpect(jsonPath("$.results[31].status", is("NOT_FOUND")));
+        // Id du panier + existence/présence des volumes en une requête IN ; l'insertion est un seul batch JDBC
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        mockMvc.perform(get("/api/users/{userId}/shopcart", testUser.getId()).param("summary", "true"))
+                .andExpect(jsonPath("$.totalItems", is(31)));
+    }
+
+    @Test
+    void testAddVolumesToUserBookshelfInBulk() throws Exception {
+        List<Long> volumeIds = createSeries(5);
+        volumeIds.add(volumeIds.get(0));  // doublon ignoré
+
+        mockMvc.perform(post("/api/users/{userId}/bookshelf/volumes", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("volumeIds", volumeIds))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added", is(5)))
+                .andExpect(jsonPath("$.results", hasSize(5)));
+
+        mockMvc.perform(post("/api/users/{userId}/bookshelf/volumes", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("volumeIds", volumeIds))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added", is(0)))
+                .andExpect(jsonPath("$.alreadyPresent", is(5)));
+        assertEquals(5, contentRepository.findByBookshelfId(testBookshelf.getId()).size());
+    }
+
+    @Test
+    void testAddVolumesInBulkInvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/users/{userId}/shopcart/volumes", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"volumeIds\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users/999999/bookshelf/volumes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"volumeIds\": [1]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Crée une série de volumes pour le manga de test et renvoie leurs ids
+    private List<Long> createSeries(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Series Volume " + i);
+            volume.setNumber(100 + i);
+            volume.setPrice(7.0);
+            volume.setManga(testManga);
+            ids.add(volumeRepository.save(volume).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
     @Test
     void testLoginSuccess() throws Exception {
         // Créer un utilisateur avec mot de passe haché
@@ -355,6 +743,151 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.password").doesNotExist()); // Le mot de passe ne doit pas être renvoyé
     }
 
+    @Test
+    void testLoginAcceptsPasswordWithOutdatedCost() throws Exception {
+        User user = new User();
+        user.setEmail("legacy@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("testPassword123"));
+        user.setCreatedAt(new Date());
+        userRepository.save(user);
+
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setEmail("legacy@example.com");
+        loginDTO.setPassword("testPassword123");
+
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+        // Le rehachage se fait après la réponse, hors transaction du test : voir UserAccountServiceTest
+    }
+
+    @Test
+    void testRefreshTokenRotationAndReuseDetection() throws Exception {
+        JsonNode login = login("refresh@example.com", "testPassword123");
+        String firstRefresh = login.get("refreshToken").asText();
+        assertTrue(login.get("expiresIn").asLong() > 0);
+
+        MvcResult refreshed = mockMvc.perform(post("/api/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(firstRefresh))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn();
+        String secondRefresh = objectMapper.readTree(refreshed.getResponse().getContentAsString())
+                .get("refreshToken").asText();
+        assertNotEquals(firstRefresh, secondRefresh);
+
+        // Réutilisation d'un refresh token déjà échangé : refusée, et toute la famille est révoquée
+        mockMvc.perform(post("/api/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(firstRefresh))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(secondRefresh))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogoutRevokesAccessAndRefreshTokens() throws Exception {
+        JsonNode login = login("logout@example.com", "testPassword123");
+        String token = login.get("token").asText();
+        String refreshToken = login.get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/users/logout")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(refreshToken))))
+                .andExpect(status().isNoContent());
+
+        assertThrows(RevokedTokenException.class, () -> jwtUtil.getEmailFromToken(token));
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(refreshToken))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogoutWithTokenWithoutJtiRevokesUserTokens() throws Exception {
+        // Token émis avant l'ajout de la claim jti, il y a une minute
+        JwtKeyRing.RingKey signingKey = jwtKeyRing.signingKey(Instant.now());
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        String legacyToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getId())
+                .setSubject(testUser.getEmail())
+                .claim(JwtUtil.USER_ID_CLAIM, testUser.getId())
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + jwtUtil.getValidityInMilliseconds()))
+                .signWith(signingKey.getKey())
+                .compact();
+        assertNull(jwtUtil.getTokenId(legacyToken));
+
+        mockMvc.perform(post("/api/users/logout")
+                .header("Authorization", "Bearer " + legacyToken))
+                .andExpect(status().isNoContent());
+
+        assertThrows(RevokedTokenException.class, () -> jwtUtil.getEmailFromToken(legacyToken));
+        // Une seule ligne, la coupure utilisateur voulue : pas de révocation avec un jti null en plus
+        List<TokenRevocation> revocations = tokenRevocationRepository.findAll().stream()
+                .filter(revocation -> revocation.getUserId().equals(testUser.getId()))
+                .toList();
+        assertEquals(1, revocations.size());
+        assertNull(revocations.get(0).getJti());
+    }
+
+    @Test
+    void testPasswordUpdateRevokesExistingTokens() throws Exception {
+        String token = jwtUtil.generateToken(testUser);
+        // La claim iat est à la seconde : la révocation ne vise que les tokens des secondes précédentes
+        Thread.sleep(1100);
+
+        testUser.setPassword("newPassword456");
+        mockMvc.perform(put("/api/users/{id}", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isOk());
+
+        assertThrows(RevokedTokenException.class, () -> jwtUtil.getEmailFromToken(token));
+        assertEquals(testUser.getEmail(), jwtUtil.getEmailFromToken(jwtUtil.generateToken(testUser)));
+    }
+
+    @Test
+    void testRevocationFromAnotherInstanceIsSynchronized() {
+        String token = jwtUtil.generateToken(testUser);
+
+        // Ligne écrite par une autre instance de l'API
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setJti(jwtUtil.getTokenId(token));
+        revocation.setUserId(testUser.getId());
+        revocation.setRevokedAt(new Date());
+        revocation.setExpiresAt(jwtUtil.getExpiration(token));
+        tokenRevocationRepository.save(revocation);
+        assertEquals(testUser.getEmail(), jwtUtil.getEmailFromToken(token));
+
+        authTokenService.syncRevocations();
+
+        assertThrows(RevokedTokenException.class, () -> jwtUtil.getEmailFromToken(token));
+    }
+
+    private JsonNode login(String email, String rawPassword) throws Exception {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode(rawPassword));
+        user.setCreatedAt(new Date());
+        userRepository.save(user);
+
+        MvcResult result = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginDTO(email, rawPassword))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
     @Test
     void testLoginWrongPassword() throws Exception {
         // Créer un utilisateur avec mot de passe haché
@@ -6,6 +6,9 @@ import com.futuretech.pixelbook.model.Volume;
 import com.futuretech.pixelbook.repository.MangaRepository;
 import com.futuretech.pixelbook.repository.VolumeRepository;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,6 +40,9 @@ public class VolumeControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Manga testManga;
     private Volume testVolume;
 
@@ -69,6 +76,23 @@ public class VolumeControllerTest {
         volumeRepository.save(secondVolume);
     }
 
+    @Test
+    void testVolumeReadsAreServedFromSecondLevelCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/volumes/{id}", testVolume.getId()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/volumes/manga/{mangaId}", testManga.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)));
+        }
+
+        assertTrue(statistics.getDomainDataRegionStatistics(Volume.class.getName()).getHitCount() > 0);
+        assertTrue(statistics.getQueryRegionStatistics("volume-lookups").getHitCount() > 0);
+    }
+
     @Test
     void testGetAllVolumes() throws Exception {
         mockMvc.perform(get("/api/volumes"))
@@ -158,6 +182,33 @@ public class VolumeControllerTest {
                 .andExpect(jsonPath("$.price", is(12.99)));
     }
 
+    @Test
+    void testUpdateVolumeChangesManga() throws Exception {
+        Manga otherManga = new Manga();
+        otherManga.setTitle("Naruto");
+        otherManga = mangaRepository.save(otherManga);
+        testVolume.setManga(otherManga);
+
+        mockMvc.perform(put("/api/volumes/{id}", testVolume.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testVolume)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.manga.id", is(otherManga.getId().intValue())))
+                .andExpect(jsonPath("$.manga.title", is("Naruto")));
+    }
+
+    @Test
+    void testUpdateVolumeWithUnknownMangaIsRejected() throws Exception {
+        Manga unknownManga = new Manga();
+        unknownManga.setId(999999L);
+        testVolume.setManga(unknownManga);
+
+        mockMvc.perform(put("/api/volumes/{id}", testVolume.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testVolume)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateVolumeNotFound() throws Exception {
         Volume nonExistentVolume = new Volume();
@@ -0,0 +1,142 @@
+package com.futuretech.pixelbook.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookshelfExportServiceTest {
+
+    @Autowired
+    private BookshelfExportService bookshelfExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Bookshelf bookshelf;
+    private Manga manga;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("export@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        manga = new Manga();
+        manga.setTitle("Export, \"Manga\"");
+        manga = mangaRepository.save(manga);
+    }
+
+    @Test
+    void testNdjsonExportWritesOneLinePerContent() throws Exception {
+        addContents(3);
+
+        String[] lines = export(BookshelfExportService.FORMAT_NDJSON).split("\n");
+
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode node = objectMapper.readTree(lines[i]);
+            assertEquals("Volume " + (i + 1), node.path("volume").path("title").asText());
+            assertEquals("Export, \"Manga\"", node.path("volume").path("mangaTitle").asText());
+        }
+    }
+
+    @Test
+    void testCsvExportEscapesFields() throws Exception {
+        addContents(2);
+
+        String[] lines = export(BookshelfExportService.FORMAT_CSV).split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("contentId,addedAt,read"));
+        assertTrue(lines[1].endsWith(",\"Export, \"\"Manga\"\"\""), lines[1]);
+    }
+
+    @Test
+    void testExportReadsShelfInOneStatementWithoutEntities() throws Exception {
+        addContents(200);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String body = export(BookshelfExportService.FORMAT_NDJSON);
+
+        assertEquals(200, body.split("\n").length);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testExportOfEmptyShelf() throws Exception {
+        assertEquals("", export(BookshelfExportService.FORMAT_NDJSON));
+        assertEquals(1, export(BookshelfExportService.FORMAT_CSV).split("\n").length);
+    }
+
+    private String export(String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookshelfExportService.export(bookshelf.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // Ajoute des volumes à la bibliothèque puis vide le contexte de persistance
+    private void addContents(int count) {
+        for (int i = 1; i <= count; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Volume " + i);
+            volume.setNumber(i);
+            volume.setPrice(6.5);
+            volume.setManga(manga);
+            volume = volumeRepository.save(volume);
+
+            Content content = new Content();
+            content.setBookshelf(bookshelf);
+            content.setVolume(volume);
+            content.setAddedAt(new Date());
+            contentRepository.save(content);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,219 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.BookshelfImportReportDTO;
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookshelfImportServiceTest {
+
+    @Autowired
+    private BookshelfImportService bookshelfImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Bookshelf bookshelf;
+    private Manga manga;
+    private List<Volume> volumes;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("import@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        manga = new Manga();
+        manga.setTitle("Import Manga");
+        manga.setMalId(424242L);
+        manga = mangaRepository.save(manga);
+
+        volumes = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            volumes.add(newVolume(i));
+        }
+        volumes = volumeRepository.saveAll(volumes);
+        entityManager.flush();
+    }
+
+    @Test
+    void testCsvImportResolvesEachReferenceKindAndReportsRowErrors() throws Exception {
+        contentRepository.addVolumeToBookshelf(bookshelf.getId(), volumes.get(4).getId());
+
+        String csv = "volumeId,isbn,malId,volumeNumber,read\n" +
+                     volumes.get(0).getId() + ",,,,true\n" +
+                     ",978-IMPORT-2,,,false\n" +
+                     ",,424242,3,oui\n" +
+                     ",978-IMPORT-2,,,\n" +             // doublon dans le fichier
+                     volumes.get(4).getId() + ",,,,\n" + // déjà dans la bibliothèque
+                     ",978-UNKNOWN,,,\n" +
+                     "abc,,,,\n" +
+                     ",,,,\n";
+
+        BookshelfImportReportDTO report = importFile(BookshelfImportService.FORMAT_CSV, csv);
+
+        assertEquals(8, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getAlreadyPresent());
+        assertEquals(3, report.getErrorCount());
+        assertEquals(List.of(7, 8, 9), report.getErrors().stream().map(BookshelfImportReportDTO.RowError::getLine).sorted().toList());
+
+        entityManager.clear();
+        List<Content> contents = contentRepository.findByBookshelfId(bookshelf.getId());
+        assertEquals(4, contents.size());
+        assertTrue(contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumes.get(0).getId()).orElseThrow().isRead());
+        assertTrue(contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumes.get(2).getId()).orElseThrow().isRead());
+    }
+
+    @Test
+    void testCsvImportAcceptsQuotedFieldsAndExportHeader() throws Exception {
+        String csv = "contentId,addedAt,read,readAt,volumeId,volumeTitle,volumeNumber,price,mangaId,mangaTitle\n" +
+                     "1,,true,,\"" + volumes.get(1).getId() + "\",\"Titre, avec \"\"virgule\"\"\",2,6.5,1,\"Sur\ndeux lignes\"\n";
+
+        BookshelfImportReportDTO report = importFile(BookshelfImportService.FORMAT_CSV, csv);
+
+        assertEquals(1, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getErrorCount());
+    }
+
+    @Test
+    void testMalXmlImportAddsReadVolumes() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                     "<myanimelist>\n" +
+                     "  <myinfo><user_export_type>2</user_export_type></myinfo>\n" +
+                     "  <manga>\n" +
+                     "    <manga_mangadb_id>424242</manga_mangadb_id>\n" +
+                     "    <series_title><![CDATA[Import Manga]]></series_title>\n" +
+                     "    <my_read_volumes>3</my_read_volumes>\n" +
+                     "  </manga>\n" +
+                     "  <manga>\n" +
+                     "    <manga_mangadb_id>1</manga_mangadb_id>\n" +
+                     "    <my_read_volumes>0</my_read_volumes>\n" +
+                     "  </manga>\n" +
+                     "</myanimelist>\n";
+
+        BookshelfImportReportDTO report = importFile(BookshelfImportService.FORMAT_MAL, xml);
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getErrorCount());
+        assertEquals(9, report.getErrors().get(0).getLine());
+
+        entityManager.clear();
+        List<Content> contents = contentRepository.findByBookshelfId(bookshelf.getId());
+        assertEquals(3, contents.size());
+        assertTrue(contents.stream().allMatch(Content::isRead));
+    }
+
+    @Test
+    void testImportRunsTwoQueriesAndOneBatchPerChunk() throws Exception {
+        List<Volume> more = new ArrayList<>();
+        for (int i = 6; i <= 1100; i++) {
+            more.add(newVolume(i));
+        }
+        volumes.addAll(volumeRepository.saveAll(more));
+        entityManager.flush();
+        entityManager.clear();
+
+        StringBuilder csv = new StringBuilder("volumeId\n");
+        volumes.forEach(v -> csv.append(v.getId()).append('\n'));
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BookshelfImportReportDTO report = importFile(BookshelfImportService.FORMAT_CSV, csv.toString());
+
+        assertEquals(1100, report.getImported());
+        // 3 lots : résolution des ids + volumes déjà présents (le batch d'insertion passe par JDBC)
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1100L, contentRepository.count());
+    }
+
+    @Test
+    void testBatchInsertReportsOnlyRowsActuallyInserted() {
+        Long present = volumes.get(0).getId();
+        Long added = volumes.get(1).getId();
+        contentRepository.addVolumeToBookshelf(bookshelf.getId(), present);
+
+        // Sans la vérification préalable, comme lors d'un ajout concurrent : la ligne en conflit est écartée
+        Set<Long> inserted = contentRepository.addVolumesToBookshelf(
+                bookshelf.getId(), List.of(present, added), List.of(false, true));
+
+        assertEquals(Set.of(added), inserted);
+        assertEquals(2, contentRepository.findVolumeIdsInBookshelf(bookshelf.getId(), List.of(present, added)).size());
+    }
+
+    @Test
+    void testInvalidFilesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importFile(BookshelfImportService.FORMAT_CSV, "title,price\nfoo,1\n"));
+        assertThrows(IllegalArgumentException.class,
+                () -> importFile(BookshelfImportService.FORMAT_MAL, "<myanimelist><manga>"));
+        // Les entités externes ne sont pas résolues
+        assertThrows(IllegalArgumentException.class,
+                () -> importFile(BookshelfImportService.FORMAT_MAL,
+                        "<?xml version=\"1.0\"?><!DOCTYPE m [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>" +
+                        "<myanimelist><manga><series_title>&x;</series_title></manga></myanimelist>"));
+    }
+
+    private BookshelfImportReportDTO importFile(String format, String body) throws Exception {
+        return bookshelfImportService.importFile(bookshelf.getId(), format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Volume newVolume(int number) {
+        Volume volume = new Volume();
+        volume.setTitle("Import Volume " + number);
+        volume.setNumber(number);
+        volume.setIsbn("978-IMPORT-" + number);
+        volume.setMalId(424242L);
+        volume.setPrice(6.5);
+        volume.setManga(manga);
+        return volume;
+    }
+}
@@ -0,0 +1,201 @@
+package com.futuretech.pixelbook.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MusicJobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch downloaded = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    // Téléchargeur sans yt-dlp/FFmpeg : bloque en phase de conversion tant que le test ne le libère pas
+    private final MusicDownloader blockingDownloader = new MusicDownloader("unused", "", "", Duration.ofMinutes(1)) {
+        @Override
+        public File download(String url, String uniqueId, String bitrate, Runnable onTranscodeStart) throws java.io.IOException, InterruptedException {
+            downloads.incrementAndGet();
+            if (url.contains("broken")) {
+                throw new IllegalStateException("Erreur de téléchargement: vidéo indisponible");
+            }
+            onTranscodeStart.run();
+            downloaded.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Files.writeString(tempDir.resolve("track_" + uniqueId + ".mp3"), "mp3").toFile();
+        }
+    };
+
+    // Index en mémoire, sans base
+    private final TrackStore trackStore = new TrackStore(null, "unused", "test-node", Duration.ZERO, 0, Duration.ZERO) {
+        private final Map<TrackKey, File> tracks = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<File> find(TrackKey key) {
+            return Optional.ofNullable(tracks.get(key));
+        }
+
+        @Override
+        public File store(TrackKey key, File transcoded) {
+            tracks.put(key, transcoded);
+            return transcoded;
+        }
+    };
+
+    private MusicJobService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testJobGoesThroughPhasesAndRecordsDuration() throws Exception {
+        service = newService(1, 4, Duration.ofMinutes(30));
+
+        MusicJobService.Job job = service.submit("https://www.youtube.com/watch?v=abc123");
+        assertTrue(downloaded.await(5, TimeUnit.SECONDS));
+        assertEquals(MusicJobService.Phase.CONVERTING, service.find(job.getId()).orElseThrow().getPhase());
+
+        release.countDown();
+        File file = job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(MusicJobService.Phase.DONE, job.getPhase());
+        assertTrue(file.getName().startsWith("track_abc123_"));
+        assertNotNull(job.getFinishedAt());
+        assertEquals(1, meterRegistry.get(MusicJobService.JOB_TIMER).tag("outcome", "success").timer().count());
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "musicJobs").gauge());
+    }
+
+    @Test
+    void testFailedJobKeepsErrorMessage() {
+        service = newService(1, 4, Duration.ofMinutes(30));
+
+        MusicJobService.Job job = service.submit("https://example.com/broken");
+
+        assertThrows(ExecutionException.class, () -> job.getCompletion().get(5, TimeUnit.SECONDS));
+        assertEquals(MusicJobService.Phase.FAILED, job.getPhase());
+        assertEquals("Erreur de téléchargement: vidéo indisponible", job.getError());
+        assertEquals(1, meterRegistry.get(MusicJobService.JOB_TIMER).tag("outcome", "failure").timer().count());
+
+        // Encore dans la fenêtre de rétention
+        service.purgeFinishedJobs();
+        assertTrue(service.find(job.getId()).isPresent());
+    }
+
+    @Test
+    void testPurgeForgetsOnlyFinishedJobs() throws Exception {
+        service = newService(1, 4, Duration.ZERO);
+
+        MusicJobService.Job failed = service.submit("https://example.com/broken");
+        assertThrows(ExecutionException.class, () -> failed.getCompletion().get(5, TimeUnit.SECONDS));
+        MusicJobService.Job running = service.submit("https://example.com/track");
+        assertTrue(downloaded.await(5, TimeUnit.SECONDS));
+        Thread.sleep(5);
+
+        // Rétention nulle : le job en échec est oublié, pas celui en cours
+        service.purgeFinishedJobs();
+
+        assertTrue(service.find(failed.getId()).isEmpty());
+        assertTrue(service.find(running.getId()).isPresent());
+    }
+
+    @Test
+    void testFullQueueRejectsSubmission() throws Exception {
+        service = newService(1, 1, Duration.ofMinutes(30));
+
+        // Un job en cours, un en file : la file (capacité 1) est pleine
+        service.submit("https://example.com/first");
+        assertTrue(downloaded.await(5, TimeUnit.SECONDS));
+        MusicJobService.Job queued = service.submit("https://example.com/second");
+        assertEquals(MusicJobService.Phase.QUEUED, queued.getPhase());
+
+        assertThrows(MusicJobService.SaturatedException.class, () -> service.submit("https://example.com/third"));
+        assertEquals(1.0, meterRegistry.get(MusicJobService.REJECTED_COUNTER).counter().count());
+        assertEquals(2.0, meterRegistry.get(MusicJobService.TRACKED_GAUGE).gauge().value());
+    }
+
+    @Test
+    void testSameTrackSharesJobThenHitsStore() throws Exception {
+        service = newService(1, 4, Duration.ofMinutes(30));
+
+        MusicJobService.Job first = service.submit("https://www.youtube.com/watch?v=shared1");
+        assertTrue(downloaded.await(5, TimeUnit.SECONDS));
+        MusicJobService.Job second = service.submit("https://youtu.be/shared1");
+        assertSame(first, second);
+
+        release.countDown();
+        File file = first.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Piste déjà stockée : job terminé sans passer par le pool
+        MusicJobService.Job third = service.submit("https://www.youtube.com/watch?v=shared1");
+        assertNotEquals(first.getId(), third.getId());
+        assertEquals(MusicJobService.Phase.DONE, third.getPhase());
+        assertEquals(file, third.getCompletion().getNow(null));
+
+        assertEquals(1, downloads.get());
+        assertEquals(1.0, meterRegistry.get(MusicJobService.TRACK_REQUESTS_COUNTER).tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get(MusicJobService.TRACK_REQUESTS_COUNTER).tag("result", "shared").counter().count());
+        assertEquals(1.0, meterRegistry.get(MusicJobService.TRACK_REQUESTS_COUNTER).tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void testStalledDownloadIsKilledAndFreesWorker() throws Exception {
+        // Faux yt-dlp : reste bloqué sur les URL "stalled" (en notant son pid), sinon écrit le webm ;
+        // faux FFmpeg : copie l'entrée vers le dernier argument
+        Path pidFile = tempDir.resolve("yt-dlp.pid");
+        Path ytDlp = script("yt-dlp", "case \"$3\" in *stalled*) echo $$ > " + pidFile + "; sleep 60;; esac\n"
+                + "echo webm > \"$2\"\n");
+        Path ffmpeg = script("ffmpeg", "for last; do :; done\ncp \"$2\" \"$last\"\n");
+        MusicDownloader downloader = new MusicDownloader(tempDir.toString(), ytDlp.toString(), ffmpeg.toString(), Duration.ofMillis(500));
+        service = new MusicJobService(downloader, trackStore, meterRegistry, "128k", 1, 4, Duration.ofMinutes(30));
+
+        MusicJobService.Job stalled = service.submit("https://example.com/stalled");
+        MusicJobService.Job next = service.submit("https://example.com/next");
+
+        assertThrows(ExecutionException.class, () -> stalled.getCompletion().get(10, TimeUnit.SECONDS));
+        assertEquals(MusicJobService.Phase.FAILED, stalled.getPhase());
+        assertEquals("Délai dépassé (yt-dlp)", stalled.getError());
+        long pid = Long.parseLong(Files.readString(pidFile).trim());
+        assertTrue(ProcessHandle.of(pid).map(p -> !p.isAlive()).orElse(true));
+
+        // L'unique worker est libéré : le job suivant aboutit
+        File file = next.getCompletion().get(10, TimeUnit.SECONDS);
+        assertEquals(MusicJobService.Phase.DONE, next.getPhase());
+        assertTrue(file.exists());
+    }
+
+    private Path script(String name, String body) throws java.io.IOException {
+        Path script = Files.writeString(tempDir.resolve(name), "#!/bin/sh\n" + body);
+        assertTrue(script.toFile().setExecutable(true));
+        return script;
+    }
+
+    private MusicJobService newService(int workers, int queueCapacity, Duration jobRetention) {
+        return new MusicJobService(blockingDownloader, trackStore, meterRegistry, "128k", workers, queueCapacity, jobRetention);
+    }
+}
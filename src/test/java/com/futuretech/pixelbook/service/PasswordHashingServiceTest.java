@@ -0,0 +1,115 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.util.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    // Encodeur qui bloque tant que le test ne le libère pas, pour occuper le pool
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public boolean matches(String rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.matches(rawPassword, encodedPassword);
+        }
+    };
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatchesRunOnPool() {
+        service = new PasswordHashingService(new PasswordEncoder(), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("secret");
+
+        assertTrue(service.matches("secret", hash));
+        assertFalse(service.matches("other", hash));
+        assertEquals(1, meterRegistry.get(PasswordHashingService.HASH_TIMER).tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get(PasswordHashingService.HASH_TIMER).tag("operation", "matches").timer().count());
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "passwordHashing").gauge());
+    }
+
+    @Test
+    void testSaturatedPoolRejectsImmediately() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(10));
+        String hash = new PasswordEncoder().encode("secret");
+
+        // Un calcul en cours, un en file : la file (capacité 1) est pleine
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("secret", hash));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> service.matches("secret", hash));
+        waitForQueued(1);
+
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingService.SaturatedException.class, () -> service.matches("secret", hash));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Le rejet doit être immédiat");
+        assertEquals(1.0, meterRegistry.get(PasswordHashingService.REJECTED_COUNTER).counter().count());
+
+        release.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testEncodeAsyncFailsFastWhenSaturated() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(10));
+        String hash = new PasswordEncoder().encode("secret");
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("secret", hash));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = service.encodeAsync("secret");
+        waitForQueued(1);
+
+        CompletableFuture<String> rejected = service.encodeAsync("secret");
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingService.SaturatedException.class, e.getCause());
+
+        release.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(new PasswordEncoder().matches("secret", queued.get(10, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    void testWaitTimeoutRejects() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 4, Duration.ofMillis(200));
+        String hash = new PasswordEncoder().encode("secret");
+
+        assertThrows(PasswordHashingService.SaturatedException.class, () -> service.matches("secret", hash));
+        assertEquals(1.0, meterRegistry.get(PasswordHashingService.REJECTED_COUNTER).counter().count());
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "Tâche jamais mise en file");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.dto.BulkReadStatusRequestDTO;
+import com.futuretech.pixelbook.dto.BulkReadStatusResultDTO;
+import com.futuretech.pixelbook.event.ReadStatusChangedEvent;
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RecordApplicationEvents
+class ReadStatusServiceTest {
+
+    @Autowired
+    private ReadStatusService readStatusService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private Bookshelf bookshelf;
+    private Manga manga;
+    private List<Volume> volumes;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("reader@example.com");
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        manga = new Manga();
+        manga.setTitle("Series Manga");
+        manga = mangaRepository.save(manga);
+
+        // 40 volumes dans la bibliothèque, plus un 41e hors bibliothèque
+        volumes = new ArrayList<>();
+        for (int i = 1; i <= 41; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Series Volume " + i);
+            volume.setNumber(i);
+            volume.setManga(manga);
+            volumes.add(volume);
+        }
+        volumes = volumeRepository.saveAll(volumes);
+        for (Volume volume : volumes.subList(0, 40)) {
+            Content content = new Content();
+            content.setBookshelf(bookshelf);
+            content.setVolume(volume);
+            content.setAddedAt(new Date());
+            content.setRead(volume.getNumber() <= 5);
+            contentRepository.save(content);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testMarkWholeSeriesReadWithOneUpdate() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BulkReadStatusResultDTO result = readStatusService.updateReadStatus(
+                bookshelf.getId(), new BulkReadStatusRequestDTO(null, manga.getId(), null, null), true);
+
+        // Une lecture des statuts, un UPDATE
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(35, result.getUpdated());
+        assertEquals(5, result.getUnchanged());
+        assertEquals(40, result.getResults().size());
+
+        assertTrue(contentRepository.findByBookshelfId(bookshelf.getId()).stream().allMatch(Content::isRead));
+        assertNotNull(contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumes.get(39).getId())
+                .orElseThrow().getReadAt());
+
+        List<ReadStatusChangedEvent> events = applicationEvents.stream(ReadStatusChangedEvent.class).collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals(35, events.get(0).getVolumeIds().size());
+        assertTrue(events.get(0).isRead());
+    }
+
+    @Test
+    void testMarkVolumeRangeUnread() {
+        BulkReadStatusResultDTO result = readStatusService.updateReadStatus(
+                bookshelf.getId(), new BulkReadStatusRequestDTO(null, manga.getId(), 3, 7), false);
+
+        assertEquals(3, result.getUpdated());
+        assertEquals(2, result.getUnchanged());
+        assertEquals(List.of(volumes.get(2).getId(), volumes.get(3).getId(), volumes.get(4).getId(),
+                             volumes.get(5).getId(), volumes.get(6).getId()),
+                     result.getResults().stream().map(BulkReadStatusResultDTO.VolumeResult::getVolumeId).toList());
+
+        Content third = contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumes.get(2).getId()).orElseThrow();
+        assertFalse(third.isRead());
+        assertNull(third.getReadAt());
+        assertTrue(contentRepository.findByBookshelfIdAndVolumeId(bookshelf.getId(), volumes.get(1).getId()).orElseThrow().isRead());
+    }
+
+    @Test
+    void testVolumeListReportsVolumesOutsideBookshelf() {
+        BulkReadStatusResultDTO result = readStatusService.updateReadStatus(bookshelf.getId(),
+                new BulkReadStatusRequestDTO(List.of(volumes.get(0).getId(), volumes.get(10).getId(), volumes.get(40).getId()),
+                                             null, null, null), true);
+
+        assertEquals(List.of(BulkReadStatusResultDTO.UNCHANGED, BulkReadStatusResultDTO.UPDATED, BulkReadStatusResultDTO.NOT_IN_BOOKSHELF),
+                     result.getResults().stream().map(BulkReadStatusResultDTO.VolumeResult::getStatus).toList());
+        assertEquals(1, result.getNotInBookshelf());
+        assertEquals(1, applicationEvents.stream(ReadStatusChangedEvent.class).count());
+    }
+
+    @Test
+    void testNoEventWhenNothingChanges() {
+        readStatusService.updateReadStatus(
+                bookshelf.getId(), new BulkReadStatusRequestDTO(null, manga.getId(), 1, 5), true);
+
+        assertEquals(0, applicationEvents.stream(ReadStatusChangedEvent.class).count());
+    }
+
+    @Test
+    void testInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> readStatusService.updateReadStatus(
+                bookshelf.getId(), new BulkReadStatusRequestDTO(), true));
+        assertThrows(IllegalArgumentException.class, () -> readStatusService.updateReadStatus(
+                bookshelf.getId(), new BulkReadStatusRequestDTO(List.of(1L), manga.getId(), null, null), true));
+    }
+}
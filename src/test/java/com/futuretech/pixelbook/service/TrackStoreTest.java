@@ -0,0 +1,152 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.repository.MusicTrackRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class TrackStoreTest {
+
+    @Autowired
+    private MusicTrackRepository musicTrackRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testKeyUsesVideoIdOrUrlHash() {
+        TrackStore trackStore = trackStore("node-a");
+
+        assertEquals(new TrackStore.TrackKey("abc123", "mp3", "128k"),
+                trackStore.keyFor("https://www.youtube.com/watch?v=abc123&t=42", "128k"));
+        assertEquals(trackStore.keyFor("https://youtu.be/abc123", "128k"),
+                trackStore.keyFor("https://www.youtube.com/watch?v=abc123", "128k"));
+        assertNotEquals(trackStore.keyFor("https://youtu.be/abc123", "128k"),
+                trackStore.keyFor("https://youtu.be/abc123", "192k"));
+
+        // Autre source, ou ID inutilisable dans un nom de fichier : empreinte de l'URL
+        String hashed = trackStore.keyFor("https://www.youtube.com/watch?v=../../etc", "128k").videoId();
+        assertTrue(hashed.matches("url-[0-9a-f]{64}"));
+        assertTrue(trackStore.keyFor("https://example.com/song", "128k").videoId().startsWith("url-"));
+    }
+
+    @Test
+    public void testStoredTrackIsFoundByNewInstance() throws Exception {
+        TrackStore trackStore = trackStore("node-a");
+        TrackStore.TrackKey key = trackStore.keyFor("https://youtu.be/store1", "128k");
+        assertTrue(trackStore.find(key).isEmpty());
+
+        File transcoded = Files.writeString(tempDir.resolve("track_store1_123.mp3"), "mp3").toFile();
+        File stored = trackStore.store(key, transcoded);
+
+        assertFalse(transcoded.exists());
+        assertEquals(tempDir.resolve("tracks").resolve("track_store1_128k.mp3").toFile().getAbsoluteFile(), stored.getAbsoluteFile());
+
+        // L'index est en base : une nouvelle instance (redémarrage) retrouve la piste
+        TrackStore restarted = trackStore("node-a");
+        assertEquals(stored.getAbsoluteFile(), restarted.find(key).orElseThrow().getAbsoluteFile());
+        assertTrue(musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-a", "store1", "mp3", "128k").isPresent());
+    }
+
+    @Test
+    public void testMissingFileDropsIndexEntry() throws Exception {
+        TrackStore trackStore = trackStore("node-a");
+        TrackStore.TrackKey key = trackStore.keyFor("https://youtu.be/gone1", "128k");
+        File stored = trackStore.store(key, Files.writeString(tempDir.resolve("gone.mp3"), "mp3").toFile());
+
+        Files.delete(stored.toPath());
+
+        assertTrue(trackStore.find(key).isEmpty());
+        assertTrue(musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-a", "gone1", "mp3", "128k").isEmpty());
+    }
+
+    @Test
+    public void testOtherNodeNeitherSeesNorDropsEntries() throws Exception {
+        TrackStore nodeA = trackStore("node-a");
+        TrackStore.TrackKey key = nodeA.keyFor("https://youtu.be/shared1", "128k");
+        nodeA.store(key, Files.writeString(tempDir.resolve("shared.mp3"), "mp3").toFile());
+
+        // Le fichier n'est pas sur le disque de node-b : il ne le trouve pas mais laisse l'entrée de node-a
+        TrackStore nodeB = new TrackStore(musicTrackRepository, tempDir.resolve("node-b").toString(),
+                "node-b", Duration.ZERO, 0, Duration.ZERO);
+        assertTrue(nodeB.find(key).isEmpty());
+        assertTrue(nodeA.find(key).isPresent());
+        assertTrue(musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-a", "shared1", "mp3", "128k").isPresent());
+    }
+
+    @Test
+    public void testEvictionDropsOldTracksThenLeastRecentlyUsedOverBudget() throws Exception {
+        // Budget de 8 octets, pistes de 4 octets, au plus 1 jour sans demande
+        TrackStore trackStore = new TrackStore(musicTrackRepository, tempDir.toString(), "node-evict", Duration.ofDays(1), 8, Duration.ZERO);
+        File stale = trackStore.store(trackStore.keyFor("https://youtu.be/evict1", "128k"),
+                Files.writeString(tempDir.resolve("e1.mp3"), "mp3!").toFile());
+        File older = trackStore.store(trackStore.keyFor("https://youtu.be/evict2", "128k"),
+                Files.writeString(tempDir.resolve("e2.mp3"), "mp3!").toFile());
+        File recent = trackStore.store(trackStore.keyFor("https://youtu.be/evict3", "128k"),
+                Files.writeString(tempDir.resolve("e3.mp3"), "mp3!").toFile());
+        File newest = trackStore.store(trackStore.keyFor("https://youtu.be/evict4", "128k"),
+                Files.writeString(tempDir.resolve("e4.mp3"), "mp3!").toFile());
+        setLastAccess("evict1", System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        setLastAccess("evict2", System.currentTimeMillis() - 3_000);
+        setLastAccess("evict3", System.currentTimeMillis() - 2_000);
+        setLastAccess("evict4", System.currentTimeMillis() - 1_000);
+
+        // evict1 trop ancienne, puis evict2 la moins récemment demandée pour revenir à 8 octets
+        assertEquals(2, trackStore.evictTracks());
+
+        assertFalse(stale.exists());
+        assertFalse(older.exists());
+        assertTrue(recent.exists());
+        assertTrue(newest.exists());
+        assertTrue(musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-evict", "evict2", "mp3", "128k").isEmpty());
+        assertTrue(musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-evict", "evict3", "mp3", "128k").isPresent());
+        assertEquals(0, trackStore.evictTracks());
+    }
+
+    @Test
+    public void testEvictionKeepsTracksOfRetainedJobs() throws Exception {
+        // Budget de 4 octets dépassé, mais les jobs terminés restent consultables 1 minute
+        TrackStore trackStore = new TrackStore(musicTrackRepository, tempDir.toString(), "node-evict", Duration.ofDays(1), 4,
+                Duration.ofMinutes(1));
+        File expired = trackStore.store(trackStore.keyFor("https://youtu.be/evict5", "128k"),
+                Files.writeString(tempDir.resolve("e5.mp3"), "mp3!").toFile());
+        File retained = trackStore.store(trackStore.keyFor("https://youtu.be/evict6", "128k"),
+                Files.writeString(tempDir.resolve("e6.mp3"), "mp3!").toFile());
+        File justServed = trackStore.store(trackStore.keyFor("https://youtu.be/evict7", "128k"),
+                Files.writeString(tempDir.resolve("e7.mp3"), "mp3!").toFile());
+        setLastAccess("evict5", System.currentTimeMillis() - Duration.ofMinutes(2).toMillis());
+        setLastAccess("evict6", System.currentTimeMillis() - 30_000);
+
+        // Seule evict5, demandée avant la fenêtre de rétention, est évincée : le budget reste dépassé
+        assertEquals(1, trackStore.evictTracks());
+
+        assertFalse(expired.exists());
+        assertTrue(retained.exists());
+        assertTrue(justServed.exists());
+        assertEquals(0, trackStore.evictTracks());
+    }
+
+    private TrackStore trackStore(String node) {
+        return new TrackStore(musicTrackRepository, tempDir.toString(), node, Duration.ZERO, 0, Duration.ZERO);
+    }
+
+    private void setLastAccess(String videoId, long epochMillis) {
+        Long id = musicTrackRepository.findByNodeAndVideoIdAndFormatAndBitrate("node-evict", videoId, "mp3", "128k")
+                .orElseThrow().getId();
+        musicTrackRepository.touch(id, new Date(epochMillis));
+    }
+}
@@ -0,0 +1,197 @@
+package com.futuretech.pixelbook.service;
+
+import com.futuretech.pixelbook.model.*;
+import com.futuretech.pixelbook.repository.*;
+import com.futuretech.pixelbook.support.TestDataCleaner;
+import com.futuretech.pixelbook.util.PasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Suppression de compte en masse et rehachage après connexion. Pas de @Transactional : les variantes
+ * asynchrones s'exécutent dans un autre thread et doivent voir les données validées.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserAccountServiceTest {
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private List<Volume> volumes;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        Manga manga = new Manga();
+        manga.setTitle("Deletion Manga");
+        manga = mangaRepository.save(manga);
+
+        volumes = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            Volume volume = new Volume();
+            volume.setTitle("Deletion Volume " + i);
+            volume.setNumber(i);
+            volume.setPrice(7.0);
+            volume.setManga(manga);
+            volumes.add(volume);
+        }
+        volumes = volumeRepository.saveAll(volumes);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        testDataCleaner.deleteAll();
+    }
+
+    @Test
+    void testDeleteAccountUsesBulkStatements() {
+        User heavyReader = createAccount("heavy@example.com", volumes.size());
+        User otherReader = createAccount("other@example.com", 3);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        double deletionsBefore = deletionCount("sync");
+
+        statistics.clear();
+        assertTrue(userAccountService.deleteAccount(heavyReader.getId()));
+
+        // Une requête DELETE par table (refresh tokens compris), quel que soit le nombre de contenus, puis la
+        // révocation des tokens : INSERT token_revocations (précédé d'un appel de séquence une fois sur 50)
+        // et UPDATE refresh_tokens ; rien n'est chargé
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements == 8 || statements == 9, "requêtes préparées: " + statements);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(userRepository.existsById(heavyReader.getId()));
+        assertTrue(bookshelfRepository.findIdByUserId(heavyReader.getId()).isEmpty());
+        assertTrue(shopCartRepository.findIdByUserId(heavyReader.getId()).isEmpty());
+
+        // Les données des autres utilisateurs sont intactes
+        Long otherBookshelfId = bookshelfRepository.findIdByUserId(otherReader.getId()).orElseThrow();
+        assertEquals(3, contentRepository.findByBookshelfId(otherBookshelfId).size());
+        Long otherCartId = shopCartRepository.findIdByUserId(otherReader.getId()).orElseThrow();
+        assertEquals(3, shopCartRepository.summarizeCart(otherCartId).getTotalItems());
+
+        assertEquals(deletionsBefore + 1, deletionCount("sync"));
+    }
+
+    @Test
+    void testUpgradePasswordHashRaisesOutdatedCostInBackground() throws Exception {
+        User user = new User();
+        user.setEmail("legacy@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("testPassword123"));
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        assertTrue(userAccountService.upgradePasswordHash(user, "testPassword123").get(10, TimeUnit.SECONDS));
+
+        String storedHash = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertTrue(storedHash.startsWith("$2a$" + passwordEncoder.getStrength() + "$"), storedHash);
+        assertTrue(passwordEncoder.matches("testPassword123", storedHash));
+    }
+
+    @Test
+    void testUpgradePasswordHashKeepsStrongerCost() throws Exception {
+        // Hachage produit par une instance configurée avec un coût plus élevé
+        String strongerHash = new BCryptPasswordEncoder(passwordEncoder.getStrength() + 1).encode("testPassword123");
+        User user = new User();
+        user.setEmail("stronger@example.com");
+        user.setPassword(strongerHash);
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        assertFalse(userAccountService.upgradePasswordHash(user, "testPassword123").get(10, TimeUnit.SECONDS));
+        assertEquals(strongerHash, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void testDeleteUnknownAccount() {
+        assertFalse(userAccountService.deleteAccount(999999L));
+    }
+
+    @Test
+    void testDeleteAccountAsync() throws Exception {
+        User heavyReader = createAccount("async@example.com", volumes.size());
+
+        assertTrue(userAccountService.deleteAccountAsync(heavyReader.getId()).get(10, TimeUnit.SECONDS));
+        assertFalse(userRepository.existsById(heavyReader.getId()));
+        assertEquals(0, contentRepository.count());
+        assertEquals(1, meterRegistry.get(UserAccountService.DELETION_TIMER).tag("mode", "async").timer().count());
+    }
+
+    // Utilisateur avec une bibliothèque et un panier contenant chacun les n premiers volumes
+    private User createAccount(String email, int volumeCount) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        user = userRepository.save(user);
+
+        Bookshelf bookshelf = new Bookshelf();
+        bookshelf.setUser(user);
+        bookshelf = bookshelfRepository.save(bookshelf);
+
+        ShopCart shopCart = new ShopCart();
+        shopCart.setUser(user);
+        shopCart = shopCartRepository.save(shopCart);
+
+        for (Volume volume : volumes.subList(0, volumeCount)) {
+            contentRepository.addVolumeToBookshelf(bookshelf.getId(), volume.getId());
+            shopCartRepository.addVolumeToCart(shopCart.getId(), volume.getId());
+        }
+        return user;
+    }
+
+    private double deletionCount(String mode) {
+        return meterRegistry.find(UserAccountService.DELETION_TIMER).tag("mode", mode).timers().stream()
+                .mapToDouble(timer -> timer.count())
+                .sum();
+    }
+}
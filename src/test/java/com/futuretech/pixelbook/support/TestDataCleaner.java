@@ -0,0 +1,41 @@
+package com.futuretech.pixelbook.support;
+
+import com.futuretech.pixelbook.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Vide les tables des tests non transactionnels (données validées par d'autres threads), dans l'ordre
+ * des clés étrangères. À appeler avant et après chaque test.
+ */
+@Component
+public class TestDataCleaner {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+
+    @Autowired
+    private ShopCartRepository shopCartRepository;
+
+    @Autowired
+    private MangaRepository mangaRepository;
+
+    @Autowired
+    private VolumeRepository volumeRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    public void deleteAll() {
+        contentRepository.deleteAll();
+        shopCartRepository.findAll().forEach(cart -> shopCartRepository.detachVolumesFromCart(cart.getId()));
+        shopCartRepository.deleteAll();
+        bookshelfRepository.deleteAll();
+        volumeRepository.deleteAll();
+        mangaRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,122 @@
+package com.futuretech.pixelbook.util;
+
+import com.futuretech.pixelbook.config.JwtProperties;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    @Test
+    void testTokenValidatesOnAnotherNodeWithSameKeys() {
+        JwtProperties properties = properties(key("k1", randomSecret(), null, null));
+
+        JwtUtil nodeA = new JwtUtil(new JwtKeyRing(properties), properties);
+        JwtUtil nodeB = new JwtUtil(new JwtKeyRing(properties), properties);
+
+        String token = nodeA.generateToken("user@example.com");
+        assertEquals("user@example.com", nodeB.getEmailFromToken(token));
+    }
+
+    @Test
+    void testRotationSignsWithNewestActiveKeyAndStillAcceptsPreviousOne() {
+        Instant now = Instant.now();
+        String oldSecret = randomSecret();
+        String newSecret = randomSecret();
+
+        // Avant la bascule : la nouvelle clé est connue mais ne signe pas encore
+        JwtProperties beforeSwitch = properties(
+                key("old", oldSecret, null, now.plus(Duration.ofDays(2))),
+                key("new", newSecret, now.plus(Duration.ofDays(1)), null));
+        JwtKeyRing ringBefore = new JwtKeyRing(beforeSwitch);
+        assertEquals("old", ringBefore.signingKey(now).getId());
+        String oldToken = new JwtUtil(ringBefore, beforeSwitch).generateToken("user@example.com");
+
+        // Après la bascule : signature avec la nouvelle clé, les tokens de l'ancienne restent valides
+        JwtProperties afterSwitch = properties(
+                key("old", oldSecret, null, now.plus(Duration.ofDays(1))),
+                key("new", newSecret, now.minus(Duration.ofMinutes(1)), null));
+        JwtKeyRing ringAfter = new JwtKeyRing(afterSwitch);
+        assertEquals("new", ringAfter.signingKey(now).getId());
+        assertEquals("user@example.com", new JwtUtil(ringAfter, afterSwitch).getEmailFromToken(oldToken));
+    }
+
+    @Test
+    void testRetiredKeyNoLongerValidates() {
+        Instant now = Instant.now();
+        String oldSecret = randomSecret();
+        JwtProperties active = properties(key("old", oldSecret, null, null));
+        String token = new JwtUtil(new JwtKeyRing(active), active).generateToken("user@example.com");
+
+        JwtProperties retired = properties(
+                key("old", oldSecret, null, now.minus(Duration.ofMinutes(1))),
+                key("new", randomSecret(), null, null));
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing(retired), retired);
+
+        assertThrows(JwtException.class, () -> jwtUtil.getEmailFromToken(token));
+    }
+
+    @Test
+    void testKeysLoadedFromKeystore(@TempDir Path dir) throws Exception {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        char[] password = "changeit".toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, password);
+        keyStore.setEntry("k1", new KeyStore.SecretKeyEntry(new SecretKeySpec(secret, "HmacSHA256")),
+                new KeyStore.PasswordProtection(password));
+        Path file = dir.resolve("jwt-keys.p12");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            keyStore.store(out, password);
+        }
+
+        JwtProperties fromKeystore = properties(key("k1", null, null, null));
+        fromKeystore.getKeystore().setLocation(file.toUri().toString());
+        fromKeystore.getKeystore().setPassword("changeit");
+        JwtProperties fromSecret = properties(key("k1", Base64.getEncoder().encodeToString(secret), null, null));
+
+        String token = new JwtUtil(new JwtKeyRing(fromKeystore), fromKeystore).generateToken("user@example.com");
+        assertEquals("user@example.com", new JwtUtil(new JwtKeyRing(fromSecret), fromSecret).getEmailFromToken(token));
+    }
+
+    @Test
+    void testDuplicateKeyIdIsRejected() {
+        JwtProperties properties = properties(key("k1", randomSecret(), null, null), key("k1", randomSecret(), null, null));
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(properties));
+    }
+
+    private static JwtProperties properties(JwtProperties.SigningKey... keys) {
+        JwtProperties properties = new JwtProperties();
+        properties.getKeys().addAll(List.of(keys));
+        return properties;
+    }
+
+    private static JwtProperties.SigningKey key(String id, String secret, Instant notBefore, Instant notAfter) {
+        JwtProperties.SigningKey key = new JwtProperties.SigningKey();
+        key.setId(id);
+        key.setSecret(secret);
+        key.setNotBefore(notBefore);
+        key.setNotAfter(notAfter);
+        return key;
+    }
+
+    private static String randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return Base64.getEncoder().encodeToString(secret);
+    }
+}
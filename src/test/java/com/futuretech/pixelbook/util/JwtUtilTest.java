@@ -0,0 +1,147 @@
+package com.futuretech.pixelbook.util;
+
+import com.futuretech.pixelbook.config.AuthenticatedUser;
+import com.futuretech.pixelbook.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    @Test
+    void testEmailRoundTrip() {
+        JwtUtil jwtUtil = new JwtUtil();
+        String token = jwtUtil.generateToken("user@example.com");
+
+        assertEquals("user@example.com", jwtUtil.getEmailFromToken(token));
+        assertTrue(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testUserTokenCarriesUserId() {
+        JwtUtil jwtUtil = new JwtUtil();
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("user@example.com");
+
+        AuthenticatedUser principal = jwtUtil.getAuthenticatedUser(jwtUtil.generateToken(user));
+
+        assertEquals(42L, principal.getId());
+        assertEquals("user@example.com", principal.getName());
+        assertNull(jwtUtil.getAuthenticatedUser(jwtUtil.generateToken("user@example.com")).getId());
+    }
+
+    @Test
+    void testRepeatedTokenIsVerifiedOnce() {
+        JwtUtil jwtUtil = new JwtUtil();
+        String token = jwtUtil.generateToken("user@example.com");
+
+        jwtUtil.getEmailFromToken(token);
+        jwtUtil.getEmailFromToken(token);
+
+        assertEquals(1, jwtUtil.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void testTokenSignedWithAnotherKeyIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil();
+        String foreignToken = new JwtUtil().generateToken("user@example.com");
+
+        assertThrows(JwtException.class, () -> jwtUtil.getEmailFromToken(foreignToken));
+        assertFalse(jwtUtil.validateToken(foreignToken));
+        assertEquals(0, jwtUtil.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedEvenWhenCached() {
+        RevokedTokenSet revokedTokens = new RevokedTokenSet();
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.ephemeral(), 3600000, 10, revokedTokens);
+        String token = jwtUtil.generateToken("user@example.com");
+        assertEquals("user@example.com", jwtUtil.getEmailFromToken(token));
+
+        revokedTokens.revokeToken(jwtUtil.getTokenId(token), jwtUtil.getExpiration(token).getTime());
+
+        assertThrows(RevokedTokenException.class, () -> jwtUtil.getEmailFromToken(token));
+        assertFalse(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testCachedTokenStillExpires() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.ephemeral(), 1500, 10);
+        String token = jwtUtil.generateToken("user@example.com");
+        assertEquals("user@example.com", jwtUtil.getEmailFromToken(token));
+
+        Thread.sleep(2000);
+
+        // L'entrée en cache ne survit pas à l'expiration du token
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.getEmailFromToken(token));
+        assertEquals(0, jwtUtil.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.ephemeral(), 3600000, 2);
+
+        for (String email : new String[] {"a@example.com", "b@example.com", "c@example.com"}) {
+            jwtUtil.getEmailFromToken(jwtUtil.generateToken(email));
+        }
+
+        assertEquals(2, jwtUtil.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void testEvictionDropsLeastRecentlyUsedTokens() {
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.ephemeral(), 3600000, 10);
+        String hotToken = jwtUtil.generateToken("hot@example.com");
+        String firstColdToken = jwtUtil.generateToken("cold0@example.com");
+        jwtUtil.getEmailFromToken(hotToken);
+        jwtUtil.getEmailFromToken(firstColdToken);
+
+        // Le token utilisé à chaque requête survit à un flot de tokens vus une seule fois
+        for (int i = 1; i <= 30; i++) {
+            jwtUtil.getEmailFromToken(jwtUtil.generateToken("cold" + i + "@example.com"));
+            jwtUtil.getEmailFromToken(hotToken);
+        }
+
+        assertTrue(jwtUtil.isVerifiedTokenCached(hotToken));
+        assertFalse(jwtUtil.isVerifiedTokenCached(firstColdToken));
+        assertTrue(jwtUtil.verifiedTokenCacheSize() <= 10);
+    }
+
+    @Test
+    void testCacheStaysBoundedUnderConcurrentAccess() throws Exception {
+        int threads = 8;
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.ephemeral(), 3600000, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String email = "user" + thread + "-" + i + "@example.com";
+                        String token = jwtUtil.generateToken(email);
+                        assertEquals(email, jwtUtil.getEmailFromToken(token));
+                        assertEquals(email, jwtUtil.getEmailFromToken(token));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Borne approximative : au plus une insertion en cours par thread au-delà de la taille configurée
+        assertTrue(jwtUtil.verifiedTokenCacheSize() <= 100 + threads);
+    }
+}
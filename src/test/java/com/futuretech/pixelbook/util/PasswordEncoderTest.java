@@ -3,6 +3,8 @@ package com.futuretech.pixelbook.util;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PasswordEncoderTest {
@@ -59,4 +61,25 @@ class PasswordEncoderTest {
             passwordEncoder.matches("test", null);
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testOnlyWeakerHashNeedsUpgrade() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("testPassword123");
+
+        // Toujours vérifiable, mais à refaire au coût courant
+        assertTrue(passwordEncoder.matches("testPassword123", legacyHash));
+        assertTrue(passwordEncoder.upgradeEncoding(legacyHash));
+        assertFalse(passwordEncoder.upgradeEncoding(passwordEncoder.encode("testPassword123")));
+        // Hachage plus coûteux que le coût courant : conservé, jamais redescendu
+        assertFalse(new PasswordEncoder(4).upgradeEncoding(passwordEncoder.encode("testPassword123")));
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        // Cible inatteignable : le coût minimal est retenu
+        assertEquals(4, BCryptCostCalibrator.calibrate(Duration.ofNanos(1), 4, 6));
+        // Cible très large : bornée par le coût maximal
+        assertEquals(6, BCryptCostCalibrator.calibrate(Duration.ofMinutes(1), 4, 6));
+        assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(Duration.ofMillis(100), 3, 6));
+    }
+}
@@ -0,0 +1,66 @@
+package com.futuretech.pixelbook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevokedTokenSetTest {
+
+    @Test
+    void testRevokedTokenIdIsDetected() {
+        RevokedTokenSet revokedTokens = new RevokedTokenSet();
+        String revoked = UUID.randomUUID().toString();
+        revokedTokens.revokeToken(revoked, System.currentTimeMillis() + 60_000);
+
+        assertTrue(revokedTokens.isRevoked(revoked, 1L, 0));
+        assertFalse(revokedTokens.isRevoked(UUID.randomUUID().toString(), 1L, 0));
+    }
+
+    @Test
+    void testNoFalseNegativesAndFewFalsePositives() {
+        RevokedTokenSet revokedTokens = new RevokedTokenSet();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String[] revoked = new String[10_000];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = UUID.randomUUID().toString();
+            revokedTokens.revokeToken(revoked[i], expiresAt);
+        }
+
+        for (String jti : revoked) {
+            assertTrue(revokedTokens.isRevoked(jti, null, 0));
+        }
+        // Les faux positifs du filtre de Bloom sont écartés par l'ensemble exact
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(revokedTokens.isRevoked(UUID.randomUUID().toString(), null, 0));
+        }
+    }
+
+    @Test
+    void testUserCutoffRevokesOlderTokensOnly() {
+        RevokedTokenSet revokedTokens = new RevokedTokenSet();
+        revokedTokens.revokeUserTokens(7L, 1_000, System.currentTimeMillis() + 60_000);
+
+        assertTrue(revokedTokens.isRevoked(null, 7L, 999));
+        assertFalse(revokedTokens.isRevoked(null, 7L, 1_000));
+        assertFalse(revokedTokens.isRevoked(null, 8L, 999));
+    }
+
+    @Test
+    void testPurgeDropsExpiredRevocations() {
+        RevokedTokenSet revokedTokens = new RevokedTokenSet();
+        long now = System.currentTimeMillis();
+        String expired = UUID.randomUUID().toString();
+        String active = UUID.randomUUID().toString();
+        revokedTokens.revokeToken(expired, now - 1);
+        revokedTokens.revokeToken(active, now + 60_000);
+        revokedTokens.revokeUserTokens(7L, 1_000, now - 1);
+
+        revokedTokens.purgeExpired(now);
+
+        assertEquals(1, revokedTokens.size());
+        assertFalse(revokedTokens.isRevoked(expired, 7L, 999));
+        assertTrue(revokedTokens.isRevoked(active, null, 0));
+    }
+}
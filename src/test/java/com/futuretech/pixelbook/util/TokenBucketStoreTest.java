@@ -0,0 +1,77 @@
+package com.futuretech.pixelbook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketStoreTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void testBurstThenRefill() {
+        TokenBucketStore store = new TokenBucketStore();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryConsume("k", 3, MINUTE, 0).allowed());
+        }
+        TokenBucketStore.Decision rejected = store.tryConsume("k", 3, MINUTE, 0);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        // Un jeton toutes les 20 secondes
+        assertEquals(TimeUnit.SECONDS.toNanos(20), rejected.retryAfterNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertTrue(store.tryConsume("k", 3, MINUTE, TimeUnit.SECONDS.toNanos(20)).allowed());
+        assertFalse(store.tryConsume("k", 3, MINUTE, TimeUnit.SECONDS.toNanos(20)).allowed());
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        TokenBucketStore store = new TokenBucketStore();
+
+        assertTrue(store.tryConsume("a", 1, MINUTE, 0).allowed());
+        assertFalse(store.tryConsume("a", 1, MINUTE, 0).allowed());
+        assertTrue(store.tryConsume("b", 1, MINUTE, 0).allowed());
+    }
+
+    @Test
+    void testIdleBucketsAreEvicted() {
+        TokenBucketStore store = new TokenBucketStore();
+        store.tryConsume("old", 5, MINUTE, 0);
+        store.tryConsume("recent", 5, MINUTE, 9 * MINUTE);
+
+        assertEquals(1, store.evictIdle(5 * MINUTE, 10 * MINUTE));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testConcurrentConsumersNeverExceedCapacity() throws Exception {
+        TokenBucketStore store = new TokenBucketStore();
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    // Pas de recharge pendant le test : horloge figée
+                    if (store.tryConsume("shared", 100, MINUTE, 0).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, allowed.get());
+    }
+}